@@ -2,8 +2,10 @@ package tn.esprit.spring.formationservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
+@EnableCaching
 @EnableDiscoveryClient
 @SpringBootApplication
 public class FormationServiceApplication {
@@ -0,0 +1,178 @@
+package tn.esprit.spring.formationservice.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Arbre d'intervalles augmenté (AVL + fin max du sous-arbre) : insertion, suppression
+// et recherche de chevauchement en O(log n). Non thread-safe : l'appelant synchronise.
+public class IntervalTree {
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Interval {
+        private final Long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+            return !start.isAfter(otherEnd) && !end.isBefore(otherStart);
+        }
+    }
+
+    private static final class Node {
+        private final Interval interval;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(Interval interval) {
+            this.interval = interval;
+            this.maxEnd = interval.end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(Interval interval) {
+        root = insert(root, interval);
+    }
+
+    public void remove(Interval interval) {
+        root = remove(root, interval);
+    }
+
+    // Retourne un intervalle qui chevauche [start, end] (bornes incluses), ou null
+    public Interval findOverlap(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.interval.overlaps(start, end)) {
+                return node.interval;
+            }
+            // Si un chevauchement existe à gauche, le maxEnd du sous-arbre gauche atteint start
+            if (node.left != null && !node.left.maxEnd.isBefore(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    private static int compare(Interval a, Interval b) {
+        int cmp = a.start.compareTo(b.start);
+        return cmp != 0 ? cmp : a.id.compareTo(b.id);
+    }
+
+    private Node insert(Node node, Interval interval) {
+        if (node == null) {
+            size++;
+            return new Node(interval);
+        }
+        int cmp = compare(interval, node.interval);
+        if (cmp < 0) {
+            node.left = insert(node.left, interval);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, interval);
+        } else {
+            return node; // déjà présent
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, Interval interval) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(interval, node.interval);
+        if (cmp < 0) {
+            node.left = remove(node.left, interval);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, interval);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node replacement = new Node(successor.interval);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime max = node.interval.end;
+        if (node.left != null && node.left.maxEnd.isAfter(max)) {
+            max = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(max)) {
+            max = node.right.maxEnd;
+        }
+        node.maxEnd = max;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
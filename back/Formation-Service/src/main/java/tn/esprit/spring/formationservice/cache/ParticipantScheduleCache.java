@@ -0,0 +1,187 @@
+package tn.esprit.spring.formationservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Index en mémoire des créneaux réservés (CONFIRME / EN_ATTENTE) de chaque participant actif.
+// Mode "cache" : chargé depuis la base au premier accès puis tenu à jour par le service (instance unique :
+// les réservations faites sur une autre instance n'y apparaissent pas) ;
+// mode "database" (par défaut) : désactivé, la vérification se fait en SQL à chaque réservation.
+// Les appels pour un participant doivent être faits sous son verrou (ParticipantLocks).
+@Slf4j
+@Component
+public class ParticipantScheduleCache {
+
+    public static final List<StatutReservation> STATUTS_ACTIFS =
+            List.of(StatutReservation.CONFIRME, StatutReservation.EN_ATTENTE);
+
+    private static final int PRELOAD_CHUNK = 1000;
+
+    private final ReservationRepository reservationRepository;
+    private final boolean enabled;
+    private final Map<Long, Schedule> schedules;
+    // Incrémentée à chaque invalidation : un chargement commencé avant n'est pas conservé
+    private long generation;
+
+    public ParticipantScheduleCache(ReservationRepository reservationRepository,
+                                    @Value("${reservation.schedule-cache.mode:database}") String mode,
+                                    @Value("${reservation.schedule-cache.max-participants:10000}") int maxParticipants) {
+        this.reservationRepository = reservationRepository;
+        this.enabled = "cache".equalsIgnoreCase(mode);
+        // LRU : les participants inactifs sont évincés en premier
+        this.schedules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Schedule> eldest) {
+                return size() > maxParticipants;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public IntervalTree.Interval findOverlap(Long participantId, Formation formation) {
+        return scheduleOf(participantId).tree.findOverlap(formation.getDateDebut(), formation.getDateFin());
+    }
+
+    // Met à jour l'index après l'enregistrement ou le changement de statut d'une réservation
+    public void onReservationSaved(Reservation reservation) {
+        if (!enabled) {
+            return;
+        }
+        Schedule schedule = cachedSchedule(reservation.getParticipantId());
+        if (schedule == null) {
+            return; // sera chargé depuis la base au prochain accès
+        }
+        schedule.remove(reservation.getId());
+        if (STATUTS_ACTIFS.contains(reservation.getStatut())) {
+            schedule.add(reservation);
+        }
+    }
+
+    // Charge en quelques requêtes les créneaux des participants absents du cache (réservations en masse)
+    public void preload(Collection<Long> participantIds) {
+        if (!enabled) {
+            return;
+        }
+        long loadedAt = generation();
+        List<Long> missing = new ArrayList<>();
+        for (Long participantId : participantIds) {
+            if (participantId != null && cachedSchedule(participantId) == null) {
+                missing.add(participantId);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += PRELOAD_CHUNK) {
+            List<Long> chunk = missing.subList(from, Math.min(from + PRELOAD_CHUNK, missing.size()));
+            Map<Long, Schedule> loaded = new HashMap<>();
+            chunk.forEach(participantId -> loaded.put(participantId, new Schedule()));
+            reservationRepository.findByParticipantIdInAndStatutIn(chunk, STATUTS_ACTIFS)
+                    .forEach(reservation -> loaded.get(reservation.getParticipantId()).add(reservation));
+            synchronized (schedules) {
+                if (generation != loadedAt) {
+                    return; // invalidé pendant la lecture : les participants restants seront chargés à l'accès
+                }
+                loaded.forEach(schedules::putIfAbsent);
+            }
+        }
+    }
+
+    public void evict(Long participantId) {
+        synchronized (schedules) {
+            generation++;
+            schedules.remove(participantId);
+        }
+    }
+
+    // Les dates d'une formation ont changé ou ses réservations ont été supprimées.
+    // Vidé tout de suite puis de nouveau après le commit : un chargement fait entre les deux a lu l'état d'avant
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    private void invalidate() {
+        synchronized (schedules) {
+            generation++;
+            schedules.clear();
+        }
+    }
+
+    private long generation() {
+        synchronized (schedules) {
+            return generation;
+        }
+    }
+
+    private Schedule cachedSchedule(Long participantId) {
+        synchronized (schedules) {
+            return schedules.get(participantId);
+        }
+    }
+
+    private Schedule scheduleOf(Long participantId) {
+        Schedule schedule = cachedSchedule(participantId);
+        if (schedule != null) {
+            return schedule;
+        }
+        // Cache miss : lecture en base hors du verrou de la map
+        long loadedAt = generation();
+        Schedule loaded = new Schedule();
+        reservationRepository.findByParticipantIdAndStatutIn(participantId, STATUTS_ACTIFS).forEach(loaded::add);
+        synchronized (schedules) {
+            if (generation != loadedAt) {
+                return loaded; // invalidé pendant la lecture : utilisé pour cet appel seulement
+            }
+            Schedule existing = schedules.putIfAbsent(participantId, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    private static final class Schedule {
+        private final IntervalTree tree = new IntervalTree();
+        private final Map<Long, IntervalTree.Interval> byReservation = new HashMap<>();
+
+        void add(Reservation reservation) {
+            Formation formation = reservation.getFormation();
+            if (formation == null || formation.getDateDebut() == null || formation.getDateFin() == null) {
+                return;
+            }
+            IntervalTree.Interval interval = new IntervalTree.Interval(
+                    reservation.getId(), formation.getDateDebut(), formation.getDateFin());
+            tree.insert(interval);
+            byReservation.put(reservation.getId(), interval);
+        }
+
+        void remove(Long reservationId) {
+            IntervalTree.Interval interval = byReservation.remove(reservationId);
+            if (interval != null) {
+                tree.remove(interval);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package tn.esprit.spring.formationservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import tn.esprit.spring.formationservice.dto.CatalogueChange;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// Prévient les autres instances (découvertes via Eureka) d'un changement qui touche leurs données en mémoire :
+// cache des catégories, compteurs des ETags du catalogue
+@Slf4j
+@Component
+public class PeerBroadcaster {
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final RestClient restClient;
+    private final String serviceId;
+    private final String contextPath;
+
+    public PeerBroadcaster(DiscoveryClient discoveryClient,
+                           ObjectProvider<Registration> registration,
+                           @Value("${spring.application.name}") String serviceId,
+                           @Value("${server.servlet.context-path:}") String contextPath) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.serviceId = serviceId;
+        this.contextPath = contextPath;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(2));
+        requestFactory.setReadTimeout(Duration.ofSeconds(2));
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    public void broadcastEviction() {
+        // Le TTL du cache borne la durée d'une entrée périmée sur une instance non prévenue
+        post("/api/categories/cache/evict", null);
+    }
+
+    public void broadcastCatalogueChange(CatalogueChange change) {
+        post("/api/formations/versions", change);
+    }
+
+    private void post(String path, Object body) {
+        Registration self = registration.getIfAvailable();
+        if (self == null) {
+            return; // pas de découverte de services (tests, instance unique)
+        }
+        CompletableFuture.runAsync(() -> {
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                if (instance.getInstanceId() != null && instance.getInstanceId().equals(self.getInstanceId())) {
+                    continue;
+                }
+                try {
+                    RestClient.RequestBodySpec request = restClient.post()
+                            .uri(instance.getUri() + contextPath + path);
+                    if (body != null) {
+                        request.contentType(MediaType.APPLICATION_JSON).body(body);
+                    }
+                    request.retrieve().toBodilessEntity();
+                } catch (Exception e) {
+                    log.warn("Change notification {} not delivered to {}: {}", path, instance.getUri(), e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package tn.esprit.spring.formationservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ImageUploadConfig {
+
+    // Pool borné pour les envois vers Cloudinary ; file pleine => le thread appelant fait l'envoi (backpressure).
+    // En mode virtual-threads les envois (I/O réseau) tournent sur des threads virtuels, toujours bornés par le pool.
+    @Bean
+    public ThreadPoolTaskExecutor imageUploadExecutor(@Value("${image.upload.pool-size:4}") int poolSize,
+                                                      @Value("${image.upload.queue-capacity:50}") int queueCapacity,
+                                                      Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Pool dédié à la génération des miniatures (CPU, reste sur des threads classiques), séparé des envois réseau
+    @Bean
+    public ThreadPoolTaskExecutor thumbnailExecutor(@Value("${image.thumbnail.pool-size:2}") int poolSize,
+                                                    @Value("${image.thumbnail.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
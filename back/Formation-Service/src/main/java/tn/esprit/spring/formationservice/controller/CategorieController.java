@@ -4,7 +4,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import tn.esprit.spring.formationservice.dto.CategorieSummary;
 import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.services.IMPL.CatalogueVersions;
 import tn.esprit.spring.formationservice.services.interfaces.ICategorieService;
 
 import java.util.List;
@@ -16,6 +19,7 @@ import java.util.List;
 public class CategorieController {
 
     private final ICategorieService categorieService;
+    private final CatalogueVersions catalogueVersions;
 
     @PostMapping
     public ResponseEntity<Categorie> add(@RequestBody Categorie categorie) {
@@ -23,12 +27,34 @@ public class CategorieController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Categorie>> getAll() {
+    public ResponseEntity<List<Categorie>> getAll(WebRequest webRequest) {
+        // Les catégories sont sérialisées avec leurs formations et leurs réservations
+        if (webRequest.checkNotModified(catalogueVersions.full())) {
+            return null;
+        }
         return new ResponseEntity<>(categorieService.getAllCategories(), HttpStatus.OK);
     }
 
+    // Liste allégée et mise en cache, pour les formulaires
+    @GetMapping("/summary")
+    public ResponseEntity<List<CategorieSummary>> getSummaries(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogueVersions.categories())) {
+            return null;
+        }
+        return new ResponseEntity<>(categorieService.getCategorieSummaries(), HttpStatus.OK);
+    }
+
+    @PostMapping("/cache/evict")
+    public ResponseEntity<Void> evictCache() {
+        categorieService.evictCategorieCache();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Categorie> getById(@PathVariable Long id) {
+    public ResponseEntity<Categorie> getById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogueVersions.full())) {
+            return null;
+        }
         return new ResponseEntity<>(categorieService.getCategorieById(id), HttpStatus.OK);
     }
 
@@ -7,16 +7,32 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import tn.esprit.spring.formationservice.dto.CatalogueChange;
+import tn.esprit.spring.formationservice.dto.FormationImportReport;
+import tn.esprit.spring.formationservice.dto.FormationPage;
 import tn.esprit.spring.formationservice.dto.FormationRequest;
+import tn.esprit.spring.formationservice.dto.FormationSearchPage;
 import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.importing.ImportFormat;
+import tn.esprit.spring.formationservice.services.IMPL.CatalogueVersions;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationImportService;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationSearchService;
 import tn.esprit.spring.formationservice.services.interfaces.IFormationService;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 @Slf4j
@@ -27,7 +43,14 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class FormationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Profondeur maximale de la recherche paginée : au-delà, la page est ramenée à la dernière autorisée
+    private static final int MAX_SEARCH_RESULTS = 10_000;
+
     private final IFormationService formationService;
+    private final CatalogueVersions catalogueVersions;
+    private final IFormationSearchService searchService;
+    private final IFormationImportService importService;
 
     @Operation(summary = "Ajouter une formation avec image")
     @ApiResponses(value = {
@@ -53,21 +76,94 @@ public class FormationController {
         }
     }
 
+    @Operation(summary = "Import en flux de formations (corps CSV avec en-tête, ou NDJSON), avec bilan ligne par ligne")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FormationImportReport> importFormations(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        ImportFormat format = contentType.startsWith("text/csv") ? ImportFormat.CSV : ImportFormat.NDJSON;
+        return ResponseEntity.ok(importService.importFormations(body, format));
+    }
+
     @GetMapping
-    public ResponseEntity<List<Formation>> getAll() {
+    public ResponseEntity<List<Formation>> getAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogueVersions.full())) {
+            return null; // 304 : ni chargement ni sérialisation
+        }
         return new ResponseEntity<>(formationService.getAllFormations(), HttpStatus.OK);
     }
 
+    @Operation(summary = "Catalogue paginé (curseur sur dateDebut/id), sans réservations")
+    @GetMapping("/page")
+    public ResponseEntity<FormationPage> getPage(
+            @RequestParam(required = false) Long categorieId,
+            @RequestParam(required = false) Boolean enLigne,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+
+        if (webRequest.checkNotModified(catalogueVersions.formations())) {
+            return null;
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        FormationPage page = formationService.getFormationPage(categorieId, enLigne, from, to, afterDate, afterId, pageSize);
+
+        // La première page est la plus demandée : les clients et proxies peuvent la garder quelques secondes
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (afterDate == null) {
+            response.cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic());
+        }
+        return response.body(page);
+    }
+
+    @Operation(summary = "Recherche plein texte (titre, description, lieu, catégorie), classée par pertinence")
+    @GetMapping("/search")
+    public ResponseEntity<FormationSearchPage> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (!searchService.isReady()) {
+            // Index en cours de reconstruction au démarrage
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, Math.min(page, MAX_SEARCH_RESULTS / pageSize));
+        return ResponseEntity.ok(searchService.search(query, pageNumber, pageSize));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Formation> getById(@PathVariable Long id) {
+    public ResponseEntity<Formation> getById(@PathVariable Long id, WebRequest webRequest) {
+        // Ne change qu'avec cette formation, ses réservations ou les catégories
+        if (webRequest.checkNotModified(catalogueVersions.formation(id))) {
+            return null;
+        }
         return formationService.getFormationById(id)
                 .map(f -> new ResponseEntity<>(f, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    // Appelé par les autres instances après une écriture : leurs ETags ne doivent plus être confirmés ici
+    @PostMapping("/versions")
+    public ResponseEntity<Void> catalogueChanged(@RequestBody CatalogueChange change) {
+        catalogueVersions.apply(change);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @PutMapping
     public ResponseEntity<Formation> update(@RequestBody Formation formation) {
-        return new ResponseEntity<>(formationService.updateFormation(formation), HttpStatus.OK);
+        try {
+            return new ResponseEntity<>(formationService.updateFormation(formation), HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            // Modifiée entre-temps par quelqu'un d'autre : le client doit recharger
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -1,13 +1,24 @@
 package tn.esprit.spring.formationservice.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.spring.formationservice.dto.BulkReservationRequest;
+import tn.esprit.spring.formationservice.dto.BulkStatusRequest;
 import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.exporting.ExportFormat;
+import tn.esprit.spring.formationservice.services.interfaces.IReservationExportService;
 import tn.esprit.spring.formationservice.services.interfaces.IReservationService;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reservations")
@@ -16,17 +27,70 @@ import java.util.List;
 public class ReservationController {
 
     private final IReservationService reservationService;
+    private final IReservationExportService exportService;
+
+    @Value("${reservation.bulk.max-size:10000}")
+    private int bulkMaxSize;
 
     @PostMapping
     public ResponseEntity<Reservation> add(@RequestBody Reservation reservation) {
         return new ResponseEntity<>(reservationService.addReservation(reservation), HttpStatus.CREATED);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addBulk(@RequestBody List<BulkReservationRequest> requests) {
+        if (requests.size() > bulkMaxSize) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Too many rows", "max", bulkMaxSize));
+        }
+        return new ResponseEntity<>(reservationService.addReservations(requests), HttpStatus.CREATED);
+    }
+
+    @PutMapping("/status/bulk")
+    public ResponseEntity<?> updateStatusBulk(@RequestBody BulkStatusRequest request) {
+        if (request.getIds() == null || request.getIds().size() > bulkMaxSize) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing ids or too many rows", "max", bulkMaxSize));
+        }
+        int updated = reservationService.updateReservationStatuses(request.getIds(), request.getStatus());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
     @GetMapping
     public ResponseEntity<List<Reservation>> getAll() {
         return new ResponseEntity<>(reservationService.getAllReservations(), HttpStatus.OK);
     }
 
+    // Export en flux (CSV ou NDJSON) : aucune liste construite en mémoire
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) StatutReservation statut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return exportResponse("reservations", null, statut, from, to, format);
+    }
+
+    // Liste des participants d'une session
+    @GetMapping("/formation/{formationId}/export")
+    public ResponseEntity<StreamingResponseBody> exportByFormation(
+            @PathVariable Long formationId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) StatutReservation statut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return exportResponse("participants-formation-" + formationId, formationId, statut, from, to, format);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String fileName, Long formationId,
+                                                                 StatutReservation statut, LocalDateTime from,
+                                                                 LocalDateTime to, ExportFormat format) {
+        StreamingResponseBody body = out -> exportService.export(formationId, statut, from, to, format, out);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/participant/{id}")
     public ResponseEntity<List<Reservation>> getByParticipant(@PathVariable Long id) {
         return new ResponseEntity<>(reservationService.getReservationsByParticipant(id), HttpStatus.OK);
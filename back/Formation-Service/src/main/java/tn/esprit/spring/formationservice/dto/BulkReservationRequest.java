@@ -0,0 +1,16 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+
+// Une ligne de POST /api/reservations/bulk
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationRequest {
+    private Long participantId;
+    private Long formationId;
+    private StatutReservation statut; // EN_ATTENTE si absent
+}
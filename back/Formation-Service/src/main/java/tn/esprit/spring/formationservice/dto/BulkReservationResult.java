@@ -0,0 +1,25 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Lignes créées et lignes refusées (index dans la requête + motif)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationResult {
+    private int created;
+    private List<Rejection> rejected = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private int index;
+        private String reason;
+    }
+}
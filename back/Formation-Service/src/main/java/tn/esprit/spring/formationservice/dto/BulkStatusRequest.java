@@ -0,0 +1,15 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequest {
+    private List<Long> ids;
+    private String status;
+}
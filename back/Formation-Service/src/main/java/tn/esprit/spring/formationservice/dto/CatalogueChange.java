@@ -0,0 +1,15 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Tables et groupes de formations modifiés par une transaction (compteurs des ETags, diffusé aux autres instances)
+@Data
+public class CatalogueChange {
+    private boolean formations;
+    private boolean categories;
+    private boolean reservations;
+    private Set<Integer> formationStripes = new HashSet<>();
+}
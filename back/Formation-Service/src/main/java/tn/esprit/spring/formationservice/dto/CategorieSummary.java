@@ -0,0 +1,15 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Catégorie sans sa liste de formations (listes déroulantes, cache)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorieSummary {
+    private Long id;
+    private String nom;
+    private String description;
+}
@@ -0,0 +1,27 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Bilan d'un import : compteurs et erreurs par ligne (liste bornée, voir errorsTruncated)
+@Data
+@NoArgsConstructor
+public class FormationImportReport {
+    private int total;
+    private int imported;
+    private int failed;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;
+        private String message;
+    }
+}
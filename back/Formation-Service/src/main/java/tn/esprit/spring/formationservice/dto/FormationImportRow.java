@@ -0,0 +1,24 @@
+package tn.esprit.spring.formationservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ligne brute d'un import CSV/NDJSON : tout est lu en texte puis validé ligne par ligne
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FormationImportRow {
+    private String titre;
+    private String description;
+    private String enLigne;
+    private String lieu;
+    private String meetLink;
+    private String imageUrl;
+    private String dateDebut;
+    private String dateFin;
+    private String formateurId;
+    private String categorieId;
+    private String titrePause;
+    private String dureePauseMinutes;
+}
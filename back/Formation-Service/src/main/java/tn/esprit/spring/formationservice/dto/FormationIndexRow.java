@@ -0,0 +1,18 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Champs texte d'une formation nécessaires à l'index de recherche
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FormationIndexRow {
+    private Long id;
+    private String titre;
+    private String description;
+    private String lieu;
+    private Long categorieId;
+    private String categorieNom;
+}
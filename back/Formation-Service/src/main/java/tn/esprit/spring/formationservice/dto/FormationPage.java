@@ -0,0 +1,19 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Page de catalogue paginée par curseur (dateDebut, id)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FormationPage {
+    private List<FormationSummary> items;
+    private boolean hasNext;
+    private LocalDateTime nextAfterDate;
+    private Long nextAfterId;
+}
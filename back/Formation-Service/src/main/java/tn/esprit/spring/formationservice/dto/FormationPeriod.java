@@ -0,0 +1,9 @@
+package tn.esprit.spring.formationservice.dto;
+
+import java.time.LocalDateTime;
+
+// Projection : uniquement les dates d'une formation
+public interface FormationPeriod {
+    LocalDateTime getDateDebut();
+    LocalDateTime getDateFin();
+}
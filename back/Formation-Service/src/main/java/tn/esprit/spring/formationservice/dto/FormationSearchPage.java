@@ -0,0 +1,18 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Résultats de recherche classés par pertinence
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FormationSearchPage {
+    private List<FormationSummary> items;
+    private int total;
+    private int page;
+    private int size;
+}
@@ -0,0 +1,29 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tn.esprit.spring.formationservice.entity.ImageStatus;
+
+import java.time.LocalDateTime;
+
+// Vue allégée d'une formation pour le catalogue (sans réservations)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FormationSummary {
+    private Long id;
+    private String titre;
+    private String description;
+    private String imageUrl;
+    private String thumbnailUrl;
+    private ImageStatus imageStatus;
+    private boolean enLigne;
+    private String lieu;
+    private String meetLink;
+    private LocalDateTime dateDebut;
+    private LocalDateTime dateFin;
+    private Long formateurId;
+    private Long categorieId;
+    private String categorieNom;
+}
@@ -0,0 +1,6 @@
+package tn.esprit.spring.formationservice.dto;
+
+// Projection : dates d'une formation réservée par un participant
+public interface ParticipantPeriod extends FormationPeriod {
+    Long getParticipantId();
+}
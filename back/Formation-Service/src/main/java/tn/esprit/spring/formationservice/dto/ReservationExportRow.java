@@ -0,0 +1,24 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+
+import java.time.LocalDateTime;
+
+// Ligne d'export à plat (réservation + formation + catégorie), sans entité chargée
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationExportRow {
+    private Long reservationId;
+    private Long participantId;
+    private StatutReservation statut;
+    private LocalDateTime dateReservation;
+    private Long formationId;
+    private String formationTitre;
+    private LocalDateTime dateDebut;
+    private LocalDateTime dateFin;
+    private String categorieNom;
+}
@@ -0,0 +1,15 @@
+package tn.esprit.spring.formationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+// Image copiée sur disque, avec l'empreinte calculée pendant la copie
+@Getter
+@AllArgsConstructor
+public class SpooledImage {
+    private final Path file;
+    private final String contentHash;
+    private final long size;
+}
@@ -3,9 +3,11 @@ package tn.esprit.spring.formationservice.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import tn.esprit.spring.formationservice.services.IMPL.CatalogueChangeListener;
 import java.util.List;
 
 @Entity
+@EntityListeners(CatalogueChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,9 +16,16 @@ import java.util.List;
 public class Categorie {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "categorie_id")
+    @TableGenerator(name = "categorie_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "categorie", allocationSize = 50)
     private Long id;
 
+    // Incrémentée à chaque modification : concurrence optimiste et ETag du catalogue
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     private String nom;
 
     @Column(length = 500)
@@ -3,11 +3,14 @@ package tn.esprit.spring.formationservice.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import tn.esprit.spring.formationservice.services.IMPL.CatalogueChangeListener;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@EntityListeners(CatalogueChangeListener.class)
+@Table(indexes = @Index(name = "idx_formation_date_debut_id", columnList = "date_debut, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,9 +19,16 @@ import java.util.List;
 public class Formation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "formation_id")
+    @TableGenerator(name = "formation_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "formation", allocationSize = 50)
     private Long id;
 
+    // Incrémentée à chaque modification : concurrence optimiste et ETag du catalogue
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     private String titre;
 
     @Column(length = 1500)
@@ -26,6 +36,11 @@ public class Formation {
 
     private String imageUrl;
 
+    private String thumbnailUrl; // miniature de taille fixe pour les listes
+
+    @Enumerated(EnumType.STRING)
+    private ImageStatus imageStatus; // envoi de l'image en cours / terminé / en échec
+
 
     private boolean enLigne; // true = en ligne, false = présentiel
 
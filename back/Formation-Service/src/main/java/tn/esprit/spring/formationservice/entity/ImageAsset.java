@@ -0,0 +1,33 @@
+package tn.esprit.spring.formationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Image déjà envoyée à Cloudinary, identifiée par l'empreinte SHA-256 de son contenu
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageAsset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "image_asset_id")
+    @TableGenerator(name = "image_asset_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "image_asset", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "content_hash", length = 64, nullable = false, unique = true)
+    private String contentHash;
+
+    private String url;
+
+    private String thumbnailUrl;
+
+    private long size;
+
+    private LocalDateTime createdAt;
+}
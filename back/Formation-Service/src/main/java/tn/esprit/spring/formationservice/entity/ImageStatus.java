@@ -0,0 +1,7 @@
+package tn.esprit.spring.formationservice.entity;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -3,9 +3,12 @@ package tn.esprit.spring.formationservice.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import tn.esprit.spring.formationservice.services.IMPL.CatalogueChangeListener;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(CatalogueChangeListener.class)
+@Table(indexes = @Index(name = "idx_reservation_participant_statut", columnList = "participant_id, statut"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,9 +17,16 @@ import java.time.LocalDateTime;
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservation_id")
+    @TableGenerator(name = "reservation_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "reservation", allocationSize = 50)
     private Long id;
 
+    // Incrémentée à chaque modification : concurrence optimiste et ETag du catalogue
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     private Long participantId; // venant de User-Service
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,24 @@
+package tn.esprit.spring.formationservice.exporting;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return MediaType.parseMediaType(contentType + ";charset=UTF-8");
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,18 @@
+package tn.esprit.spring.formationservice.importing;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+// Fichier CSV mal formé (à distinguer d'une erreur de lecture du flux)
+@Getter
+public class CsvFormatException extends IOException {
+
+    // Ligne où commence l'enregistrement fautif
+    private final int line;
+
+    public CsvFormatException(int line, String message) {
+        super(message);
+        this.line = line;
+    }
+}
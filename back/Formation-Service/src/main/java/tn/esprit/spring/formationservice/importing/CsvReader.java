@@ -0,0 +1,125 @@
+package tn.esprit.spring.formationservice.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lecteur CSV en flux (RFC 4180) : champs entre guillemets, "" pour un guillemet, retours à la ligne
+// dans un champ. Ne garde en mémoire que l'enregistrement courant.
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final char delimiter;
+    private int line = 1;
+    private int recordLine;
+    private int pushedBack = -2;
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    // Ligne (1 = première) où commence le dernier enregistrement lu
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    // null à la fin du flux ; les lignes vides sont ignorées
+    public List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                consumeLineEnd(c);
+                continue;
+            }
+            recordLine = line;
+            unread(c);
+            return readRecord();
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new CsvFormatException(recordLine, "Guillemet non fermé (enregistrement ligne " + recordLine + ")");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r')) {
+                        consumeLineEnd(c);
+                        field.append('\n');
+                    } else {
+                        field.append((char) c);
+                    }
+                }
+                continue;
+            }
+            if (c == -1 || c == '\r' || c == '\n') {
+                if (c != -1) {
+                    consumeLineEnd(c);
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                continue;
+            }
+            if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+                continue;
+            }
+            field.append((char) c);
+            fieldStart = false;
+        }
+    }
+
+    private void consumeLineEnd(int c) throws IOException {
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                unread(next);
+            }
+        }
+        line++;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,6 @@
+package tn.esprit.spring.formationservice.importing;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -1,9 +1,23 @@
 package tn.esprit.spring.formationservice.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import tn.esprit.spring.formationservice.dto.CategorieSummary;
 import tn.esprit.spring.formationservice.entity.Categorie;
 
+import java.util.List;
+
 @Repository
 public interface CategorieRepository extends JpaRepository<Categorie, Long> {
+
+    // GET /api/categories sérialise les formations : on les charge dans la même requête
+    @Override
+    @EntityGraph(attributePaths = "formations")
+    List<Categorie> findAll();
+
+    @Query("select new tn.esprit.spring.formationservice.dto.CategorieSummary(c.id, c.nom, c.description) " +
+            "from Categorie c order by c.nom")
+    List<CategorieSummary> findAllSummaries();
 }
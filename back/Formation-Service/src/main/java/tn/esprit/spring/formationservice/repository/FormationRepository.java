@@ -1,10 +1,88 @@
 package tn.esprit.spring.formationservice.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.formationservice.dto.FormationIndexRow;
+import tn.esprit.spring.formationservice.dto.FormationSummary;
 import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.ImageStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface FormationRepository extends JpaRepository<Formation, Long> {
 
+    // Catégorie et réservations sont sérialisées avec la formation
+    @Override
+    @EntityGraph(attributePaths = {"categorie", "reservations"})
+    List<Formation> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"categorie", "reservations"})
+    Optional<Formation> findById(Long id);
+
+    // Formation sans ses réservations (utilisée lors d'une réservation)
+    @EntityGraph(attributePaths = "categorie")
+    Optional<Formation> findWithCategorieById(Long id);
+
+    @Query("select f.version from Formation f where f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Mise à jour ciblée à la fin de l'envoi de l'image, sans écraser les autres champs
+    @Modifying
+    @Transactional
+    @Query("update Formation f set f.imageUrl = :imageUrl, f.imageStatus = :imageStatus, " +
+            "f.version = coalesce(f.version, 0) + 1 where f.id = :id")
+    int updateImage(@Param("id") Long id, @Param("imageUrl") String imageUrl, @Param("imageStatus") ImageStatus imageStatus);
+
+    @Modifying
+    @Transactional
+    @Query("update Formation f set f.thumbnailUrl = :thumbnailUrl, f.version = coalesce(f.version, 0) + 1 " +
+            "where f.id = :id")
+    int updateThumbnail(@Param("id") Long id, @Param("thumbnailUrl") String thumbnailUrl);
+
+    // Lecture par lots pour reconstruire l'index de recherche
+    @Query("select new tn.esprit.spring.formationservice.dto.FormationIndexRow(" +
+            "f.id, f.titre, f.description, f.lieu, c.id, c.nom) " +
+            "from Formation f left join f.categorie c where f.id > :afterId order by f.id")
+    List<FormationIndexRow> findIndexRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new tn.esprit.spring.formationservice.dto.FormationIndexRow(" +
+            "f.id, f.titre, f.description, f.lieu, c.id, c.nom) " +
+            "from Formation f left join f.categorie c where f.id = :id")
+    Optional<FormationIndexRow> findIndexRowById(@Param("id") Long id);
+
+    @Query("select new tn.esprit.spring.formationservice.dto.FormationSummary(" +
+            "f.id, f.titre, f.description, f.imageUrl, f.thumbnailUrl, f.imageStatus, f.enLigne, f.lieu, f.meetLink, " +
+            "f.dateDebut, f.dateFin, f.formateurId, c.id, c.nom) " +
+            "from Formation f left join f.categorie c where f.id in :ids")
+    List<FormationSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Pagination par curseur sur (dateDebut, id) : pas d'OFFSET, pas de chargement des réservations
+    @Query("select new tn.esprit.spring.formationservice.dto.FormationSummary(" +
+            "f.id, f.titre, f.description, f.imageUrl, f.thumbnailUrl, f.imageStatus, f.enLigne, f.lieu, f.meetLink, " +
+            "f.dateDebut, f.dateFin, f.formateurId, c.id, c.nom) " +
+            "from Formation f left join f.categorie c " +
+            "where f.dateDebut is not null " +
+            "and (:categorieId is null or c.id = :categorieId) " +
+            "and (:enLigne is null or f.enLigne = :enLigne) " +
+            "and (:from is null or f.dateDebut >= :from) " +
+            "and (:to is null or f.dateDebut <= :to) " +
+            "and (:afterDate is null or f.dateDebut > :afterDate " +
+            "     or (f.dateDebut = :afterDate and f.id > :afterId)) " +
+            "order by f.dateDebut asc, f.id asc")
+    List<FormationSummary> findSummaryPage(@Param("categorieId") Long categorieId,
+                                           @Param("enLigne") Boolean enLigne,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("afterDate") LocalDateTime afterDate,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
 }
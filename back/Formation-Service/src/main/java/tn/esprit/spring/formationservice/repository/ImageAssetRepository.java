@@ -0,0 +1,12 @@
+package tn.esprit.spring.formationservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import tn.esprit.spring.formationservice.entity.ImageAsset;
+
+import java.util.Optional;
+
+@Repository
+public interface ImageAssetRepository extends JpaRepository<ImageAsset, Long> {
+    Optional<ImageAsset> findByContentHash(String contentHash);
+}
@@ -1,16 +1,83 @@
 package tn.esprit.spring.formationservice.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import tn.esprit.spring.formationservice.dto.FormationPeriod;
+import tn.esprit.spring.formationservice.dto.ParticipantPeriod;
+import tn.esprit.spring.formationservice.dto.ReservationExportRow;
 import tn.esprit.spring.formationservice.entity.Reservation;
 import tn.esprit.spring.formationservice.entity.StatutReservation;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    // Les réservations sont sérialisées avec leur formation et sa catégorie : une seule requête avec jointures
+    @Override
+    @EntityGraph(attributePaths = {"formation", "formation.categorie"})
+    List<Reservation> findAll();
+
+    @EntityGraph(attributePaths = {"formation", "formation.categorie"})
     List<Reservation> findByParticipantId(Long participantId);
+
+    @EntityGraph(attributePaths = {"formation", "formation.categorie"})
     List<Reservation> findByParticipantIdAndStatutIn(Long participantId, List<StatutReservation> statuts);
 
+    @EntityGraph(attributePaths = {"formation", "formation.categorie"})
     List<Reservation> findByFormationId(Long formationId);
+
+    @EntityGraph(attributePaths = "formation")
+    List<Reservation> findByParticipantIdInAndStatutIn(Collection<Long> participantIds, List<StatutReservation> statuts);
+
+    // Export : lignes à plat lues par curseur (fetch size) au lieu d'une liste d'entités en mémoire
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new tn.esprit.spring.formationservice.dto.ReservationExportRow(" +
+            "r.id, r.participantId, r.statut, r.dateReservation, f.id, f.titre, f.dateDebut, f.dateFin, c.nom) " +
+            "from Reservation r join r.formation f left join f.categorie c " +
+            "where (:formationId is null or f.id = :formationId) " +
+            "and (:statut is null or r.statut = :statut) " +
+            "and (:from is null or r.dateReservation >= :from) " +
+            "and (:to is null or r.dateReservation <= :to) " +
+            "order by r.id")
+    Stream<ReservationExportRow> streamExportRows(@Param("formationId") Long formationId,
+                                                  @Param("statut") StatutReservation statut,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    @Query("select distinct r.participantId from Reservation r where r.id in :ids")
+    List<Long> findParticipantIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Chevauchement calculé en SQL (index participant_id/statut), on ne lit que les dates
+    @Query("select f.dateDebut as dateDebut, f.dateFin as dateFin from Reservation r join r.formation f " +
+            "where r.participantId = :participantId and r.statut in :statuts " +
+            "and f.dateDebut <= :fin and f.dateFin >= :debut")
+    List<FormationPeriod> findOverlapping(@Param("participantId") Long participantId,
+                                          @Param("statuts") List<StatutReservation> statuts,
+                                          @Param("debut") LocalDateTime debut,
+                                          @Param("fin") LocalDateTime fin,
+                                          Pageable pageable);
+
+    // Même calcul pour un ensemble de participants (création en masse) : une requête au lieu d'une par ligne
+    @Query("select r.participantId as participantId, f.dateDebut as dateDebut, f.dateFin as dateFin " +
+            "from Reservation r join r.formation f " +
+            "where r.participantId in :participantIds and r.statut in :statuts " +
+            "and f.dateDebut <= :fin and f.dateFin >= :debut")
+    List<ParticipantPeriod> findOverlappingPeriods(@Param("participantIds") Collection<Long> participantIds,
+                                                   @Param("statuts") List<StatutReservation> statuts,
+                                                   @Param("debut") LocalDateTime debut,
+                                                   @Param("fin") LocalDateTime fin);
 }
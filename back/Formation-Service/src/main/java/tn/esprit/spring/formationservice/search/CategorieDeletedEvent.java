@@ -0,0 +1,11 @@
+package tn.esprit.spring.formationservice.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// La suppression d'une catégorie supprime ses formations en cascade
+@Getter
+@AllArgsConstructor
+public class CategorieDeletedEvent {
+    private final Long categorieId;
+}
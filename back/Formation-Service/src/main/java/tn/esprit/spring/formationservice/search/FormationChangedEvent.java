@@ -0,0 +1,12 @@
+package tn.esprit.spring.formationservice.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Publié après l'ajout, la modification ou la suppression d'une formation
+@Getter
+@AllArgsConstructor
+public class FormationChangedEvent {
+    private final Long formationId;
+    private final boolean deleted;
+}
@@ -0,0 +1,14 @@
+package tn.esprit.spring.formationservice.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tn.esprit.spring.formationservice.dto.FormationIndexRow;
+
+import java.util.List;
+
+// Un lot d'import vient d'être validé : les lignes sont indexées sans relire la base
+@Getter
+@AllArgsConstructor
+public class FormationsImportedEvent {
+    private final List<FormationIndexRow> rows;
+}
@@ -0,0 +1,75 @@
+package tn.esprit.spring.formationservice.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Découpe un texte français en termes : minuscules, sans accents, sans mots vides, pluriel simple retiré
+public final class FrenchAnalyzer {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "elles", "en", "et", "est",
+            "il", "ils", "la", "le", "les", "leur", "leurs", "lui", "ma", "mes", "mon", "ne", "nos", "notre",
+            "nous", "on", "ou", "par", "pas", "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sur",
+            "ta", "te", "tes", "ton", "un", "une", "vos", "votre", "vous");
+
+    private FrenchAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                String term = normalizeTerm(folded.substring(start, i));
+                if (term != null) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Pour le dernier mot d'une saisie : on garde le préfixe tel quel (pas de retrait du pluriel)
+    public static String foldPrefix(String token) {
+        return fold(token);
+    }
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            switch (c) {
+                case 'œ', 'Œ' -> sb.append("oe");
+                case 'æ', 'Æ' -> sb.append("ae");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeTerm(String token) {
+        if (token.length() < 2 || STOPWORDS.contains(token)) {
+            return null;
+        }
+        // formations -> formation, travaux -> travau : suffit pour rapprocher singulier et pluriel
+        if (token.length() > 3 && (token.endsWith("s") || token.endsWith("x"))) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,355 @@
+package tn.esprit.spring.formationservice.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Index inversé en mémoire : terme -> (document, poids), trié pour la recherche par préfixe.
+// Chaque document reçoit un numéro interne dense ; postings et scores sont des tableaux primitifs,
+// sans objet par document, pour rester rapide et compact à 100k formations.
+public class InvertedIndex {
+
+    // Nombre max de termes parcourus pour un préfixe : borne la latence des préfixes très courts
+    private static final int MAX_PREFIX_TERMS = 64;
+    // Saturation de la fréquence (à la BM25) : un mot répété dix fois ne vaut pas dix fois plus
+    private static final float TF_SATURATION = 1.2f;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private long[] idBySlot = new long[1024];
+    private Document[] documentBySlot = new Document[1024];
+    private int slotCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Remplace le document s'il est déjà indexé. fields : texte -> boost
+    public void index(long id, Long groupId, Map<String, Float> fields) {
+        Map<String, Float> frequencies = new HashMap<>();
+        fields.forEach((text, boost) -> {
+            for (String term : FrenchAnalyzer.analyze(text)) {
+                frequencies.merge(term, boost, Float::sum);
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int slot = allocateSlot(id);
+            String[] docTerms = new String[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> e : frequencies.entrySet()) {
+                float tf = e.getValue();
+                float weight = tf * (TF_SATURATION + 1) / (tf + TF_SATURATION);
+                terms.computeIfAbsent(e.getKey(), t -> new Postings()).put(slot, weight);
+                docTerms[i++] = e.getKey();
+            }
+            documentBySlot[slot] = new Document(docTerms, groupId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Retire tous les documents d'un groupe (formations d'une catégorie supprimée)
+    public void removeGroup(Long groupId) {
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < slotCount; slot++) {
+                Document doc = documentBySlot[slot];
+                if (doc != null && groupId.equals(doc.groupId)) {
+                    removeLocked(idBySlot[slot]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tous les mots doivent correspondre ; le dernier est aussi cherché comme préfixe (saisie en cours)
+    public Result search(String query, long offset, int limit) {
+        if (query == null) {
+            return new Result(0, List.of());
+        }
+        int split = lastTokenStart(query);
+        String prefix = split < 0 ? null : FrenchAnalyzer.foldPrefix(query.substring(split));
+        if (prefix != null && prefix.length() < 2) {
+            prefix = null;
+        }
+        List<String> exactTerms = FrenchAnalyzer.analyze(prefix == null ? query : query.substring(0, split));
+        List<String> lastTerm = prefix == null ? List.of() : FrenchAnalyzer.analyze(query.substring(split));
+        if (exactTerms.isEmpty() && prefix == null) {
+            return new Result(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            // Un groupe par mot de la requête ; un groupe préfixe peut regrouper plusieurs termes
+            List<List<Postings>> groups = new ArrayList<>();
+            for (String term : exactTerms) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    return new Result(0, List.of());
+                }
+                groups.add(List.of(postings));
+            }
+            if (prefix != null) {
+                List<Postings> expansions = expand(lastTerm.isEmpty() ? null : lastTerm.get(0), prefix);
+                if (expansions.isEmpty()) {
+                    return new Result(0, List.of());
+                }
+                groups.add(expansions);
+            }
+            return rank(groups, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Postings> expand(String exactTerm, String prefix) {
+        List<Postings> expansions = new ArrayList<>();
+        if (exactTerm != null && terms.containsKey(exactTerm)) {
+            expansions.add(terms.get(exactTerm));
+        }
+        int visited = 0;
+        for (Map.Entry<String, Postings> e : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            if (visited++ >= MAX_PREFIX_TERMS) {
+                break;
+            }
+            if (!e.getKey().equals(exactTerm)) {
+                expansions.add(e.getValue());
+            }
+        }
+        return expansions;
+    }
+
+    // Score TF-IDF accumulé dans des tableaux indexés par numéro interne, puis tri partiel des meilleurs
+    private Result rank(List<List<Postings>> groups, long offset, int limit) {
+        int n = Math.max(1, slotById.size());
+        float[] scores = new float[slotCount];
+        int[] matchedGroups = new int[slotCount];
+
+        for (int g = 0; g < groups.size(); g++) {
+            for (Postings postings : groups.get(g)) {
+                float idf = (float) Math.log(1 + (double) n / postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    int slot = postings.slots[i];
+                    if (matchedGroups[slot] == g) {
+                        matchedGroups[slot] = g + 1; // compté une seule fois par groupe
+                    } else if (matchedGroups[slot] != g + 1) {
+                        continue; // a raté un mot précédent
+                    }
+                    scores[slot] += postings.weights[i] * idf;
+                }
+            }
+        }
+
+        int required = groups.size();
+        int total = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (matchedGroups[slot] == required) {
+                total++;
+            }
+        }
+        // Le tas ne dépasse jamais le nombre de résultats, quelle que soit la page demandée
+        if (offset >= total || limit <= 0) {
+            return new Result(total, List.of());
+        }
+        int keep = (int) Math.min(offset + limit, total);
+        int[] heap = new int[keep];
+        int heapSize = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (matchedGroups[slot] != required) {
+                continue;
+            }
+            if (heapSize < keep) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++, scores);
+            } else if (better(slot, heap[0], scores)) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        // Le tas contient les meilleurs, le moins bon en tête : on le vide à l'envers
+        long[] ordered = new long[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ordered[i] = idBySlot[heap[0]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = (int) offset; i < ordered.length; i++) {
+            ids.add(ordered[i]);
+        }
+        return new Result(total, ids);
+    }
+
+    // À score égal, le plus petit id (le plus ancien) passe devant
+    private boolean better(int a, int b, float[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return idBySlot[a] < idBySlot[b];
+    }
+
+    private void siftUp(int[] heap, int i, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!better(heap[parent], heap[i], scores)) {
+                break;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, float[] scores) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left], scores)) {
+                worst = left;
+            }
+            if (right < size && better(heap[worst], heap[right], scores)) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    // Début du dernier mot, ou -1 si la saisie se termine par un espace (dernier mot complet)
+    private static int lastTokenStart(String query) {
+        if (query.isEmpty() || !Character.isLetterOrDigit(query.charAt(query.length() - 1))) {
+            return -1;
+        }
+        int start = query.length();
+        while (start > 0 && Character.isLetterOrDigit(query.charAt(start - 1))) {
+            start--;
+        }
+        return start;
+    }
+
+    private int allocateSlot(long id) {
+        Integer free = freeSlots.poll();
+        int slot;
+        if (free != null) {
+            slot = free;
+        } else {
+            if (slotCount == idBySlot.length) {
+                idBySlot = Arrays.copyOf(idBySlot, slotCount * 2);
+                documentBySlot = Arrays.copyOf(documentBySlot, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        idBySlot[slot] = id;
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (String term : documentBySlot[slot].terms) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(slot) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        documentBySlot[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final int total;
+        private final List<Long> ids;
+    }
+
+    private static class Document {
+        private final String[] terms;
+        private final Long groupId;
+
+        Document(String[] terms, Long groupId) {
+            this.terms = terms;
+            this.groupId = groupId;
+        }
+    }
+
+    // Numéros triés : ajout en fin en O(1) lors de la reconstruction, recherche binaire sinon
+    private static class Postings {
+        private int[] slots = new int[2];
+        private float[] weights = new float[2];
+        private int size;
+
+        void put(int slot, float weight) {
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos >= 0) {
+                weights[pos] = weight;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+            slots[pos] = slot;
+            weights[pos] = weight;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+            System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
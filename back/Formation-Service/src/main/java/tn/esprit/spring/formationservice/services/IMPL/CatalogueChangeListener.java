@@ -0,0 +1,32 @@
+package tn.esprit.spring.formationservice.services.IMPL;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+
+// Toute écriture d'entité du catalogue, quel que soit le chemin (services, cascades, import), avance les
+// compteurs des ETags. Les mises à jour JPQL en masse n'en passent pas par ici : leurs appelants préviennent
+// CatalogueVersions eux-mêmes.
+@RequiredArgsConstructor
+public class CatalogueChangeListener {
+
+    private final CatalogueVersions catalogueVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Object entity) {
+        if (entity instanceof Formation formation) {
+            catalogueVersions.formationChanged(formation.getId());
+        } else if (entity instanceof Reservation reservation) {
+            catalogueVersions.reservationChanged(
+                    reservation.getFormation() != null ? reservation.getFormation().getId() : null);
+        } else if (entity instanceof Categorie) {
+            catalogueVersions.categorieChanged();
+        }
+    }
+}
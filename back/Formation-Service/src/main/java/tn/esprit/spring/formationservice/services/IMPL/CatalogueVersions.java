@@ -0,0 +1,140 @@
+package tn.esprit.spring.formationservice.services.IMPL;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.formationservice.cache.PeerBroadcaster;
+import tn.esprit.spring.formationservice.dto.CatalogueChange;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// ETags du catalogue : compteurs de modifications par table, en mémoire, incrémentés après le commit de chaque
+// écriture (CatalogueChangeListener). Répondre 304 ne coûte aucune requête SQL.
+// L'époque, tirée au démarrage, distingue les ETags de chaque instance et de chaque redémarrage.
+// À lire avant les données : au pire le client reçoit des données plus récentes que son ETag.
+@Component
+@RequiredArgsConstructor
+public class CatalogueVersions {
+
+    // GET /api/formations/{id} : un compteur par groupe de formations (id modulo STRIPES), mémoire bornée.
+    // Deux formations du même groupe s'invalident mutuellement, jamais à tort dans l'autre sens.
+    static final int STRIPES = 1024;
+
+    private final PeerBroadcaster peerBroadcaster;
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong formations = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+    private final AtomicLong reservations = new AtomicLong();
+    private final AtomicLongArray formationStripes = new AtomicLongArray(STRIPES);
+
+    // Formations avec catégorie et réservations (GET /api/formations, /api/categories ...)
+    public String full() {
+        return epoch + "-f" + formations.get() + "-c" + categories.get() + "-r" + reservations.get();
+    }
+
+    // Formations avec leur catégorie, sans réservations (catalogue paginé)
+    public String formations() {
+        return epoch + "-f" + formations.get() + "-c" + categories.get();
+    }
+
+    public String categories() {
+        return epoch + "-c" + categories.get();
+    }
+
+    // Une formation avec sa catégorie et ses réservations
+    public String formation(Long id) {
+        return epoch + "-x" + formationStripes.get(stripe(id)) + "-c" + categories.get();
+    }
+
+    public void formationChanged(Long formationId) {
+        record(change -> {
+            change.setFormations(true);
+            addStripe(change, formationId);
+        });
+    }
+
+    public void reservationChanged(Long formationId) {
+        record(change -> {
+            change.setReservations(true);
+            addStripe(change, formationId);
+        });
+    }
+
+    public void categorieChanged() {
+        record(change -> change.setCategories(true));
+    }
+
+    // Changement reçu d'une autre instance
+    public void apply(CatalogueChange change) {
+        if (change.isFormations()) {
+            formations.incrementAndGet();
+        }
+        if (change.isCategories()) {
+            categories.incrementAndGet();
+        }
+        if (change.isReservations()) {
+            reservations.incrementAndGet();
+        }
+        for (Integer stripe : change.getFormationStripes()) {
+            if (stripe != null && stripe >= 0 && stripe < STRIPES) {
+                formationStripes.incrementAndGet(stripe);
+            }
+        }
+    }
+
+    // Regroupé par transaction et appliqué après le commit : un ETag incrémenté avant le commit pourrait
+    // être servi avec les anciennes données, puis confirmé par des 304 jusqu'à la modification suivante
+    private void record(Consumer<CatalogueChange> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            CatalogueChange change = new CatalogueChange();
+            update.accept(change);
+            publish(change);
+            return;
+        }
+        Pending pending = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending p && p.owner() == this) {
+                pending = p;
+                break;
+            }
+        }
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        update.accept(pending.change);
+    }
+
+    private void publish(CatalogueChange change) {
+        apply(change);
+        peerBroadcaster.broadcastCatalogueChange(change);
+    }
+
+    private static void addStripe(CatalogueChange change, Long formationId) {
+        if (formationId != null) {
+            change.getFormationStripes().add(stripe(formationId));
+        }
+    }
+
+    private static int stripe(Long formationId) {
+        return formationId == null ? 0 : Math.floorMod(Long.hashCode(formationId), STRIPES);
+    }
+
+    private class Pending implements TransactionSynchronization {
+        private final CatalogueChange change = new CatalogueChange();
+
+        private CatalogueVersions owner() {
+            return CatalogueVersions.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            publish(change);
+        }
+    }
+}
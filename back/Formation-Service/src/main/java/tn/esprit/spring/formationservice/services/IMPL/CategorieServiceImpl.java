@@ -1,7 +1,14 @@
 package tn.esprit.spring.formationservice.services.IMPL;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import tn.esprit.spring.formationservice.cache.ParticipantScheduleCache;
+import tn.esprit.spring.formationservice.cache.PeerBroadcaster;
+import tn.esprit.spring.formationservice.dto.CategorieSummary;
+import tn.esprit.spring.formationservice.search.CategorieDeletedEvent;
 import tn.esprit.spring.formationservice.entity.Categorie;
 import tn.esprit.spring.formationservice.repository.CategorieRepository;
 import tn.esprit.spring.formationservice.services.interfaces.ICategorieService;
@@ -12,11 +19,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategorieServiceImpl implements ICategorieService {
 
+    public static final String CATEGORIES_CACHE = "categories";
+
     private final CategorieRepository categorieRepository;
+    private final PeerBroadcaster peerBroadcaster;
+    private final ParticipantScheduleCache scheduleCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @CacheEvict(cacheNames = CATEGORIES_CACHE, allEntries = true)
     public Categorie addCategorie(Categorie categorie) {
-        return categorieRepository.save(categorie);
+        Categorie saved = categorieRepository.save(categorie);
+        peerBroadcaster.broadcastEviction();
+        return saved;
     }
 
     @Override
@@ -30,7 +45,25 @@ public class CategorieServiceImpl implements ICategorieService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CATEGORIES_CACHE, allEntries = true)
     public void deleteCategorie(Long id) {
+        // Supprime aussi les formations de la catégorie et leurs réservations
         categorieRepository.deleteById(id);
+        scheduleCache.clear();
+        peerBroadcaster.broadcastEviction();
+        eventPublisher.publishEvent(new CategorieDeletedEvent(id));
+    }
+
+    // Lecture à travers le cache : la liste change très rarement
+    @Override
+    @Cacheable(cacheNames = CATEGORIES_CACHE, key = "'summaries'")
+    public List<CategorieSummary> getCategorieSummaries() {
+        return categorieRepository.findAllSummaries();
+    }
+
+    // Appelé par les autres instances après une modification
+    @Override
+    @CacheEvict(cacheNames = CATEGORIES_CACHE, allEntries = true)
+    public void evictCategorieCache() {
     }
 }
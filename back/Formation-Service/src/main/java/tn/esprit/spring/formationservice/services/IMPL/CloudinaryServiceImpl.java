@@ -4,22 +4,173 @@ package tn.esprit.spring.formationservice.services.IMPL;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import tn.esprit.spring.formationservice.dto.SpooledImage;
+import tn.esprit.spring.formationservice.entity.ImageAsset;
+import tn.esprit.spring.formationservice.repository.ImageAssetRepository;
 import tn.esprit.spring.formationservice.services.interfaces.ICloudinaryService;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class CloudinaryServiceImpl implements ICloudinaryService {
 
     private final Cloudinary cloudinary;
+    private final ImageAssetRepository imageAssetRepository;
+
+    @Value("${image.thumbnail.width:320}")
+    private int thumbnailWidth;
+
+    @Value("${image.thumbnail.height:180}")
+    private int thumbnailHeight;
+
+    // Au-delà, l'image n'est pas décodée : un PNG de quelques Ko peut annoncer 50k x 50k pixels
+    @Value("${image.thumbnail.max-pixels:40000000}")
+    private long thumbnailMaxPixels;
 
     @Override
     public String uploadImage(MultipartFile file) throws IOException {
-        Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
+        Path tempFile = Files.createTempFile("upload-", ".img");
+        try {
+            file.transferTo(tempFile);
+            return uploadImage(tempFile.toFile());
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public String uploadImage(File file) throws IOException {
+        // Un File est envoyé en streaming par le client HTTP de Cloudinary
+        Map<?, ?> uploadResult = cloudinary.uploader().upload(file, ObjectUtils.emptyMap());
         return uploadResult.get("url").toString(); // ou "secure_url" pour HTTPS
     }
+
+    @Override
+    public SpooledImage spool(InputStream content) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+        Path tempFile = Files.createTempFile("image-", ".img");
+        try (InputStream in = new DigestInputStream(content, sha256)) {
+            long size = Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return new SpooledImage(tempFile, HexFormat.of().formatHex(sha256.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<ImageAsset> findByContentHash(String contentHash) {
+        return imageAssetRepository.findByContentHash(contentHash);
+    }
+
+    @Override
+    public ImageAsset storeImage(SpooledImage image) throws IOException {
+        Optional<ImageAsset> known = imageAssetRepository.findByContentHash(image.getContentHash());
+        if (known.isPresent()) {
+            return known.get(); // doublon : une simple lecture, pas d'envoi
+        }
+        String url = uploadImage(image.getFile().toFile());
+        try {
+            return imageAssetRepository.save(ImageAsset.builder()
+                    .contentHash(image.getContentHash())
+                    .url(url)
+                    .size(image.getSize())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Même image envoyée en parallèle : on garde celle déjà enregistrée
+            return imageAssetRepository.findByContentHash(image.getContentHash()).orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    public ImageAsset storeThumbnail(ImageAsset asset, SpooledImage image) throws IOException {
+        BufferedImage source = readForThumbnail(image.getFile().toFile());
+        Path thumbnailFile = Files.createTempFile("thumb-", ".jpg");
+        try {
+            ImageIO.write(cropToFit(source), "jpg", thumbnailFile.toFile());
+            asset.setThumbnailUrl(uploadImage(thumbnailFile.toFile()));
+            return imageAssetRepository.save(asset);
+        } finally {
+            Files.deleteIfExists(thumbnailFile);
+        }
+    }
+
+    // Dimensions lues dans l'en-tête avant tout décodage, puis décodage sous-échantillonné :
+    // seule une image à peine plus grande que la miniature est gardée en mémoire
+    private BufferedImage readForThumbnail(File file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Format d'image non supporté pour la miniature");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > thumbnailMaxPixels) {
+                    throw new IOException("Image trop grande pour la miniature : " + width + "x" + height);
+                }
+                // Un pixel sur step dans chaque direction, sans descendre sous la taille de la miniature
+                int step = Math.max(1, Math.min(width / thumbnailWidth, height / thumbnailHeight));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Redimensionne pour couvrir la zone puis recadre au centre : taille de sortie fixe
+    private BufferedImage cropToFit(BufferedImage source) {
+        double scale = Math.max((double) thumbnailWidth / source.getWidth(),
+                (double) thumbnailHeight / source.getHeight());
+        int scaledWidth = (int) Math.ceil(source.getWidth() * scale);
+        int scaledHeight = (int) Math.ceil(source.getHeight() * scale);
+
+        BufferedImage thumbnail = new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source,
+                    (thumbnailWidth - scaledWidth) / 2, (thumbnailHeight - scaledHeight) / 2,
+                    scaledWidth, scaledHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
 }
@@ -0,0 +1,341 @@
+package tn.esprit.spring.formationservice.services.IMPL;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.formationservice.dto.FormationImportReport;
+import tn.esprit.spring.formationservice.dto.FormationImportRow;
+import tn.esprit.spring.formationservice.dto.FormationIndexRow;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.ImageStatus;
+import tn.esprit.spring.formationservice.importing.CsvFormatException;
+import tn.esprit.spring.formationservice.importing.CsvReader;
+import tn.esprit.spring.formationservice.importing.ImportFormat;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.search.FormationsImportedEvent;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationImportService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// Import en flux : les lignes sont lues une à une depuis le corps de la requête, validées,
+// puis enregistrées par lots (une transaction par lot, flush/clear réguliers).
+// La mémoire utilisée dépend de la taille d'un lot, pas de la taille du fichier.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FormationImportServiceImpl implements IFormationImportService {
+
+    private static final Map<String, BiConsumer<FormationImportRow, String>> CSV_COLUMNS = new HashMap<>();
+
+    static {
+        CSV_COLUMNS.put("titre", FormationImportRow::setTitre);
+        CSV_COLUMNS.put("description", FormationImportRow::setDescription);
+        CSV_COLUMNS.put("enligne", FormationImportRow::setEnLigne);
+        CSV_COLUMNS.put("lieu", FormationImportRow::setLieu);
+        CSV_COLUMNS.put("meetlink", FormationImportRow::setMeetLink);
+        CSV_COLUMNS.put("imageurl", FormationImportRow::setImageUrl);
+        CSV_COLUMNS.put("datedebut", FormationImportRow::setDateDebut);
+        CSV_COLUMNS.put("datefin", FormationImportRow::setDateFin);
+        CSV_COLUMNS.put("formateurid", FormationImportRow::setFormateurId);
+        CSV_COLUMNS.put("categorieid", FormationImportRow::setCategorieId);
+        CSV_COLUMNS.put("titrepause", FormationImportRow::setTitrePause);
+        CSV_COLUMNS.put("dureepauseminutes", FormationImportRow::setDureePauseMinutes);
+    }
+
+    private final CategorieRepository categorieRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${formation.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${formation.import.flush-interval:100}")
+    private int flushInterval;
+
+    @Value("${formation.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Override
+    public FormationImportReport importFormations(InputStream body, ImportFormat format) {
+        // Les catégories sont peu nombreuses : chargées une fois, résolues en mémoire pour chaque ligne
+        Map<Long, String> categories = new HashMap<>();
+        categorieRepository.findAllSummaries().forEach(c -> categories.put(c.getId(), c.getNom()));
+
+        ImportRun run = new ImportRun(categories, new FormationImportReport(), new ArrayList<>());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        // Les lots précédents sont déjà validés : une erreur de lecture arrête l'import mais le bilan est rendu
+        try {
+            if (format == ImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (CsvFormatException e) {
+            run.report.setTotal(run.report.getTotal() + 1);
+            addError(run.report, e.getLine(), "CSV invalide, import arrêté : " + e.getMessage());
+        } catch (IOException e) {
+            log.warn("Import stream interrupted: {}", e.getMessage());
+            addError(run.report, 0, "Lecture interrompue, import arrêté : " + e.getMessage());
+        }
+        persistChunk(run);
+        return run.report;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        // Séparateur deviné sur l'en-tête : les exports Excel français utilisent ';'
+        reader.mark(64 * 1024);
+        String headerLine = reader.readLine();
+        reader.reset();
+        if (headerLine == null) {
+            return;
+        }
+        char delimiter = headerLine.indexOf(';') >= 0 && headerLine.indexOf(',') < 0 ? ';' : ',';
+
+        CsvReader csv = new CsvReader(reader, delimiter);
+        List<String> header = csv.next();
+        List<BiConsumer<FormationImportRow, String>> setters = new ArrayList<>();
+        for (String column : header) {
+            // BOM UTF-8 éventuel sur la première colonne
+            String key = column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            setters.add(CSV_COLUMNS.get(key)); // null : colonne ignorée
+        }
+        for (String required : List.of("titre", "datedebut", "datefin")) {
+            if (!setters.contains(CSV_COLUMNS.get(required))) {
+                addError(run.report, 1, "Colonne obligatoire absente : " + required);
+                return;
+            }
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            FormationImportRow row = new FormationImportRow();
+            for (int i = 0; i < fields.size() && i < setters.size(); i++) {
+                if (setters.get(i) != null) {
+                    setters.get(i).accept(row, fields.get(i));
+                }
+            }
+            accept(run, csv.getRecordLine(), row);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            FormationImportRow row;
+            try {
+                row = objectMapper.readValue(line, FormationImportRow.class);
+            } catch (JsonProcessingException e) {
+                run.report.setTotal(run.report.getTotal() + 1);
+                addError(run.report, lineNumber, "JSON invalide : " + e.getOriginalMessage());
+                continue;
+            }
+            accept(run, lineNumber, row);
+        }
+    }
+
+    private void accept(ImportRun run, int line, FormationImportRow row) {
+        run.report.setTotal(run.report.getTotal() + 1);
+        try {
+            run.chunk.add(toPending(line, row, run.categories));
+        } catch (IllegalArgumentException e) {
+            addError(run.report, line, e.getMessage());
+            return;
+        }
+        if (run.chunk.size() >= chunkSize) {
+            persistChunk(run);
+        }
+    }
+
+    private void persistChunk(ImportRun run) {
+        if (run.chunk.isEmpty()) {
+            return;
+        }
+        List<PendingRow> chunk = run.chunk;
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistAll(chunk));
+            run.report.setImported(run.report.getImported() + chunk.size());
+            publishImported(chunk, run.categories);
+        } catch (RuntimeException e) {
+            // Le lot entier est annulé : on rejoue ligne par ligne pour isoler les lignes en erreur
+            log.warn("Import chunk failed, retrying row by row: {}", e.getMessage());
+            List<PendingRow> saved = new ArrayList<>();
+            for (PendingRow row : chunk) {
+                row.formation.setId(null);
+                row.formation.setVersion(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persistAll(List.of(row)));
+                    run.report.setImported(run.report.getImported() + 1);
+                    saved.add(row);
+                } catch (RuntimeException rowError) {
+                    addError(run.report, row.line, "Enregistrement impossible : " + rowError.getMessage());
+                }
+            }
+            publishImported(saved, run.categories);
+        }
+        chunk.clear();
+    }
+
+    private void persistAll(List<PendingRow> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            PendingRow row = rows.get(i);
+            if (row.categorieId != null) {
+                row.formation.setCategorie(entityManager.getReference(Categorie.class, row.categorieId));
+            }
+            entityManager.persist(row.formation);
+            if ((i + 1) % flushInterval == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+
+    private void publishImported(List<PendingRow> rows, Map<Long, String> categories) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<FormationIndexRow> indexRows = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            Formation f = row.formation;
+            indexRows.add(new FormationIndexRow(f.getId(), f.getTitre(), f.getDescription(), f.getLieu(),
+                    row.categorieId, row.categorieId == null ? null : categories.get(row.categorieId)));
+        }
+        eventPublisher.publishEvent(new FormationsImportedEvent(indexRows));
+    }
+
+    private PendingRow toPending(int line, FormationImportRow row, Map<Long, String> categories) {
+        if (isBlank(row.getTitre())) {
+            throw new IllegalArgumentException("Titre obligatoire");
+        }
+        LocalDateTime debut = parseDate(row.getDateDebut(), "dateDebut");
+        LocalDateTime fin = parseDate(row.getDateFin(), "dateFin");
+        if (fin.isBefore(debut)) {
+            throw new IllegalArgumentException("dateFin est avant dateDebut");
+        }
+        Long categorieId = parseLong(row.getCategorieId(), "categorieId");
+        if (categorieId != null && !categories.containsKey(categorieId)) {
+            throw new IllegalArgumentException("Catégorie inconnue : " + categorieId);
+        }
+
+        Formation formation = Formation.builder()
+                .titre(row.getTitre().trim())
+                .description(blankToNull(row.getDescription()))
+                .enLigne(parseBoolean(row.getEnLigne()))
+                .lieu(blankToNull(row.getLieu()))
+                .meetLink(blankToNull(row.getMeetLink()))
+                .imageUrl(blankToNull(row.getImageUrl()))
+                .imageStatus(isBlank(row.getImageUrl()) ? null : ImageStatus.READY)
+                .dateDebut(debut)
+                .dateFin(fin)
+                .datePublication(LocalDateTime.now())
+                .formateurId(parseLong(row.getFormateurId(), "formateurId"))
+                .titrePause(blankToNull(row.getTitrePause()))
+                .dureePauseMinutes(parseInteger(row.getDureePauseMinutes(), "dureePauseMinutes"))
+                .build();
+        return new PendingRow(line, formation, categorieId);
+    }
+
+    private static LocalDateTime parseDate(String value, String field) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException(field + " obligatoire");
+        }
+        try {
+            return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " invalide (attendu 2025-01-31T09:00) : " + value);
+        }
+    }
+
+    private static Long parseLong(String value, String field) {
+        if (isBlank(value)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " invalide : " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value, String field) {
+        if (isBlank(value)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " invalide ou hors limites : " + value);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (isBlank(value)) {
+            return false;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "oui", "1", "enligne" -> true;
+            case "false", "non", "0", "presentiel" -> false;
+            default -> throw new IllegalArgumentException("enLigne invalide : " + value);
+        };
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String blankToNull(String value) {
+        return isBlank(value) ? null : value.trim();
+    }
+
+    private void addError(FormationImportReport report, int line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new FormationImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class ImportRun {
+        private final Map<Long, String> categories;
+        private final FormationImportReport report;
+        private final List<PendingRow> chunk;
+    }
+
+    @AllArgsConstructor
+    private static class PendingRow {
+        private final int line;
+        private final Formation formation;
+        private final Long categorieId;
+    }
+}
@@ -0,0 +1,165 @@
+package tn.esprit.spring.formationservice.services.IMPL;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tn.esprit.spring.formationservice.dto.FormationIndexRow;
+import tn.esprit.spring.formationservice.dto.FormationSearchPage;
+import tn.esprit.spring.formationservice.dto.FormationSummary;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.search.CategorieDeletedEvent;
+import tn.esprit.spring.formationservice.search.FormationChangedEvent;
+import tn.esprit.spring.formationservice.search.FormationsImportedEvent;
+import tn.esprit.spring.formationservice.search.InvertedIndex;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationSearchService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FormationSearchServiceImpl implements IFormationSearchService {
+
+    // Poids des champs dans le score
+    private static final float BOOST_TITRE = 3.0f;
+    private static final float BOOST_CATEGORIE = 2.0f;
+    private static final float BOOST_LIEU = 1.5f;
+    private static final float BOOST_DESCRIPTION = 1.0f;
+
+    private final FormationRepository formationRepository;
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+
+    // Modifications reçues pendant une reconstruction, rejouées sur le nouvel index une fois les lots chargés :
+    // appliquées directement, elles seraient écrasées par une ligne lue avant elles (document fantôme ou périmé)
+    private final List<Consumer<InvertedIndex>> pendingChanges = new ArrayList<>();
+    private boolean rebuilding = true; // protégé par pendingChanges ; vrai jusqu'au premier chargement
+
+    @Value("${search.rebuild.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Reconstruction dans un nouvel index, par lots sur l'id (pas d'OFFSET) : durée linéaire en nombre de formations.
+    // L'ancien index reste servi jusqu'à l'échange.
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (pendingChanges) {
+            rebuilding = true;
+        }
+        InvertedIndex next = new InvertedIndex();
+        boolean loaded = false;
+        try {
+            long afterId = 0;
+            List<FormationIndexRow> rows;
+            do {
+                rows = formationRepository.findIndexRows(afterId, PageRequest.of(0, batchSize));
+                for (FormationIndexRow row : rows) {
+                    index(next, row);
+                    afterId = row.getId();
+                }
+            } while (rows.size() == batchSize);
+            loaded = true;
+        } finally {
+            // Rejoue dans l'ordre d'arrivée jusqu'à ce qu'il n'y ait plus rien en attente, puis échange.
+            // En cas d'échec du chargement, l'index courant est gardé et reçoit les modifications.
+            InvertedIndex target = loaded ? next : index;
+            while (true) {
+                List<Consumer<InvertedIndex>> replay;
+                synchronized (pendingChanges) {
+                    if (pendingChanges.isEmpty()) {
+                        index = target;
+                        rebuilding = false;
+                        break;
+                    }
+                    replay = new ArrayList<>(pendingChanges);
+                    pendingChanges.clear();
+                }
+                replay.forEach(change -> change.accept(target));
+            }
+        }
+        ready = true;
+        log.info("Search index rebuilt: {} formations in {} ms", next.size(), System.currentTimeMillis() - start);
+    }
+
+    // Après le commit : l'index ne voit jamais une formation annulée
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFormationChanged(FormationChangedEvent event) {
+        apply(target -> {
+            if (event.isDeleted()) {
+                target.remove(event.getFormationId());
+                return;
+            }
+            // Relue au moment de l'application : une modification rejouée prend l'état le plus récent
+            formationRepository.findIndexRowById(event.getFormationId())
+                    .ifPresentOrElse(row -> index(target, row), () -> target.remove(event.getFormationId()));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFormationsImported(FormationsImportedEvent event) {
+        apply(target -> event.getRows().forEach(row -> index(target, row)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategorieDeleted(CategorieDeletedEvent event) {
+        apply(target -> target.removeGroup(event.getCategorieId()));
+    }
+
+    private void apply(Consumer<InvertedIndex> change) {
+        synchronized (pendingChanges) {
+            if (rebuilding) {
+                pendingChanges.add(change);
+                return;
+            }
+        }
+        change.accept(index);
+    }
+
+    @Override
+    public FormationSearchPage search(String query, int page, int size) {
+        InvertedIndex.Result result = index.search(query, (long) page * size, size);
+        if (result.getIds().isEmpty()) {
+            return new FormationSearchPage(List.of(), result.getTotal(), page, size);
+        }
+        // Une seule requête pour la page, remise dans l'ordre du classement
+        Map<Long, FormationSummary> byId = formationRepository.findSummariesByIdIn(result.getIds()).stream()
+                .collect(Collectors.toMap(FormationSummary::getId, Function.identity()));
+        List<FormationSummary> items = result.getIds().stream()
+                .map(byId::get)
+                .filter(summary -> summary != null)
+                .toList();
+        return new FormationSearchPage(items, result.getTotal(), page, size);
+    }
+
+    private void index(InvertedIndex target, FormationIndexRow row) {
+        Map<String, Float> fields = new LinkedHashMap<>();
+        addField(fields, row.getTitre(), BOOST_TITRE);
+        addField(fields, row.getCategorieNom(), BOOST_CATEGORIE);
+        addField(fields, row.getLieu(), BOOST_LIEU);
+        addField(fields, row.getDescription(), BOOST_DESCRIPTION);
+        target.index(row.getId(), row.getCategorieId(), fields);
+    }
+
+    private static void addField(Map<String, Float> fields, String text, float boost) {
+        if (text != null && !text.isBlank()) {
+            fields.merge(text, boost, Float::sum);
+        }
+    }
+}
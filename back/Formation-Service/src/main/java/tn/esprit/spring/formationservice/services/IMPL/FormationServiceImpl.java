@@ -1,21 +1,34 @@
 package tn.esprit.spring.formationservice.services.IMPL;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import tn.esprit.spring.formationservice.cache.ParticipantScheduleCache;
+import tn.esprit.spring.formationservice.dto.FormationPage;
 import tn.esprit.spring.formationservice.dto.FormationRequest;
+import tn.esprit.spring.formationservice.dto.FormationSummary;
+import tn.esprit.spring.formationservice.dto.SpooledImage;
 import tn.esprit.spring.formationservice.entity.Categorie;
 import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.ImageAsset;
+import tn.esprit.spring.formationservice.entity.ImageStatus;
 import tn.esprit.spring.formationservice.repository.CategorieRepository;
 import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.search.FormationChangedEvent;
 import tn.esprit.spring.formationservice.services.interfaces.ICloudinaryService;
 import tn.esprit.spring.formationservice.services.interfaces.IFormationService;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FormationServiceImpl implements IFormationService {
@@ -23,15 +36,26 @@ public class FormationServiceImpl implements IFormationService {
     private final FormationRepository formationRepository;
     private final CategorieRepository categorieRepository;
     private final ICloudinaryService cloudinaryService;
+    private final ParticipantScheduleCache scheduleCache;
+    private final ThreadPoolTaskExecutor imageUploadExecutor;
+    private final ThreadPoolTaskExecutor thumbnailExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogueVersions catalogueVersions;
 
     @Override
     public Formation addFormation(FormationRequest request, MultipartFile imageFile) throws IOException {
-        String imageUrl = cloudinaryService.uploadImage(imageFile);
+        // L'image est copiée sur disque en calculant son empreinte ; si ce contenu est déjà
+        // connu on réutilise son URL, sinon l'envoi se fait en arrière-plan
+        SpooledImage image = null;
+        ImageAsset known = null;
+        if (imageFile != null && !imageFile.isEmpty()) {
+            image = cloudinaryService.spool(imageFile.getInputStream());
+            known = cloudinaryService.findByContentHash(image.getContentHash()).orElse(null);
+        }
 
         Formation.FormationBuilder formationBuilder = Formation.builder()
                 .titre(request.getTitre())
                 .description(request.getDescription())
-                .imageUrl(imageUrl)
                 .formateurId(request.getFormateurId())
                 .enLigne("enligne".equalsIgnoreCase(request.getMode()))
                 .dateDebut(request.getDateDebut())
@@ -57,7 +81,89 @@ public class FormationServiceImpl implements IFormationService {
                     .dureePauseMinutes(request.getPauseDuration());
         }
 
-        return formationRepository.save(formationBuilder.build());
+        if (known != null) {
+            formationBuilder.imageUrl(known.getUrl())
+                    .thumbnailUrl(known.getThumbnailUrl())
+                    .imageStatus(ImageStatus.READY);
+        } else if (image != null) {
+            formationBuilder.imageStatus(ImageStatus.PENDING);
+        }
+
+        Formation saved;
+        try {
+            saved = formationRepository.save(formationBuilder.build());
+        } catch (RuntimeException e) {
+            deleteQuietly(image);
+            throw e;
+        }
+        eventPublisher.publishEvent(new FormationChangedEvent(saved.getId(), false));
+
+        if (image != null) {
+            Long formationId = saved.getId();
+            SpooledImage spooled = image;
+            ImageAsset asset = known;
+            if (asset == null) {
+                imageUploadExecutor.execute(() -> uploadFormationImage(formationId, spooled));
+            } else if (asset.getThumbnailUrl() == null) {
+                thumbnailExecutor.execute(() -> generateThumbnail(formationId, asset, spooled));
+            } else {
+                deleteQuietly(spooled);
+            }
+        }
+        return saved;
+    }
+
+    private void uploadFormationImage(Long formationId, SpooledImage image) {
+        ImageAsset asset;
+        try {
+            asset = cloudinaryService.storeImage(image);
+            updateImage(formationId, asset.getUrl(), ImageStatus.READY);
+        } catch (Exception e) {
+            log.error("Image upload failed for formation {}", formationId, e);
+            updateImage(formationId, null, ImageStatus.FAILED);
+            deleteQuietly(image);
+            return;
+        }
+        if (asset.getThumbnailUrl() != null) {
+            updateThumbnail(formationId, asset.getThumbnailUrl());
+            deleteQuietly(image);
+        } else {
+            thumbnailExecutor.execute(() -> generateThumbnail(formationId, asset, image));
+        }
+    }
+
+    private void generateThumbnail(Long formationId, ImageAsset asset, SpooledImage image) {
+        try {
+            ImageAsset withThumbnail = cloudinaryService.storeThumbnail(asset, image);
+            updateThumbnail(formationId, withThumbnail.getThumbnailUrl());
+        } catch (Exception e) {
+            // Pas bloquant : la liste retombe sur l'image originale
+            log.warn("Thumbnail generation failed for formation {}", formationId, e);
+        } finally {
+            deleteQuietly(image);
+        }
+    }
+
+    // Mises à jour JPQL : elles ne passent pas par CatalogueChangeListener
+    private void updateImage(Long formationId, String imageUrl, ImageStatus status) {
+        formationRepository.updateImage(formationId, imageUrl, status);
+        catalogueVersions.formationChanged(formationId);
+    }
+
+    private void updateThumbnail(Long formationId, String thumbnailUrl) {
+        formationRepository.updateThumbnail(formationId, thumbnailUrl);
+        catalogueVersions.formationChanged(formationId);
+    }
+
+    private static void deleteQuietly(SpooledImage image) {
+        if (image == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(image.getFile());
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", image.getFile(), e);
+        }
     }
 
     @Override
@@ -65,6 +171,21 @@ public class FormationServiceImpl implements IFormationService {
         return formationRepository.findAll();
     }
 
+    @Override
+    public FormationPage getFormationPage(Long categorieId, Boolean enLigne, LocalDateTime from, LocalDateTime to,
+                                          LocalDateTime afterDate, Long afterId, int size) {
+        // On lit un élément de plus pour savoir s'il existe une page suivante
+        List<FormationSummary> rows = formationRepository.findSummaryPage(categorieId, enLigne, from, to,
+                afterDate, afterId == null ? 0L : afterId, PageRequest.of(0, size + 1));
+
+        boolean hasNext = rows.size() > size;
+        List<FormationSummary> items = hasNext ? rows.subList(0, size) : rows;
+        FormationSummary last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return new FormationPage(items, hasNext,
+                hasNext ? last.getDateDebut() : null,
+                hasNext ? last.getId() : null);
+    }
+
     @Override
     public Optional<Formation> getFormationById(Long id) {
         return formationRepository.findById(id);
@@ -72,11 +193,21 @@ public class FormationServiceImpl implements IFormationService {
 
     @Override
     public Formation updateFormation(Formation formation) {
-        return formationRepository.save(formation);
+        // Un client qui n'envoie pas de version (ancien front) écrase la dernière version connue ;
+        // sinon une version périmée lève une OptimisticLockingFailureException
+        if (formation.getId() != null && formation.getVersion() == null) {
+            formationRepository.findVersionById(formation.getId()).ifPresent(formation::setVersion);
+        }
+        Formation saved = formationRepository.save(formation);
+        scheduleCache.clear();
+        eventPublisher.publishEvent(new FormationChangedEvent(saved.getId(), false));
+        return saved;
     }
 
     @Override
     public void deleteFormation(Long id) {
         formationRepository.deleteById(id);
+        scheduleCache.clear();
+        eventPublisher.publishEvent(new FormationChangedEvent(id, true));
     }
 }
\ No newline at end of file
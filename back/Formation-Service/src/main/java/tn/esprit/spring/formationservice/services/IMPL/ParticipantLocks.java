@@ -0,0 +1,45 @@
+package tn.esprit.spring.formationservice.services.IMPL;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Verrous "striped" : les réservations d'un même participant sont sérialisées,
+// sans garder un verrou par participant en mémoire
+@Component
+public class ParticipantLocks {
+
+    private static final int STRIPES = 256;
+
+    private final Lock[] locks = new Lock[STRIPES];
+
+    public ParticipantLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock lockFor(Long participantId) {
+        return locks[stripe(participantId)];
+    }
+
+    // Verrous de plusieurs participants, sans doublon et toujours dans le même ordre (pas d'interblocage)
+    public List<Lock> locksFor(Collection<Long> participantIds) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        participantIds.forEach(id -> stripes.add(stripe(id)));
+        List<Lock> ordered = new ArrayList<>(stripes.size());
+        stripes.forEach(stripe -> ordered.add(locks[stripe]));
+        return ordered;
+    }
+
+    private static int stripe(Long participantId) {
+        int hash = participantId == null ? 0 : Long.hashCode(participantId);
+        hash ^= hash >>> 16;
+        return hash & (STRIPES - 1);
+    }
+}
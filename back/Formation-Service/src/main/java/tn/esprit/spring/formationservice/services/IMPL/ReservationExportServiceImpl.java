@@ -0,0 +1,107 @@
+package tn.esprit.spring.formationservice.services.IMPL;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.formationservice.dto.ReservationExportRow;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.exporting.ExportFormat;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.services.interfaces.IReservationExportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+// Export en flux : curseur JPA en lecture seule, chaque ligne est écrite puis oubliée.
+// La mémoire reste constante quelle que soit la taille de la session exportée.
+@Slf4j
+@Service
+public class ReservationExportServiceImpl implements IReservationExportService {
+
+    private static final String CSV_HEADER = "reservationId,participantId,statut,dateReservation,"
+            + "formationId,formationTitre,dateDebut,dateFin,categorieNom";
+
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReservationExportServiceImpl(ReservationRepository reservationRepository, ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void export(Long formationId, StatutReservation statut, LocalDateTime from, LocalDateTime to,
+                       ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try {
+            // Le Stream doit être consommé dans la transaction qui l'a ouvert
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ReservationExportRow> rows =
+                             reservationRepository.streamExportRows(formationId, statut, from, to)) {
+                    rows.forEach(row -> write(writer, row, format));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client déconnecté en cours d'export
+        }
+        writer.flush();
+    }
+
+    private void write(Writer writer, ReservationExportRow row, ExportFormat format) {
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(String.valueOf(row.getReservationId()));
+                writer.write(',');
+                writer.write(csv(row.getParticipantId()));
+                writer.write(',');
+                writer.write(csv(row.getStatut()));
+                writer.write(',');
+                writer.write(csv(row.getDateReservation()));
+                writer.write(',');
+                writer.write(csv(row.getFormationId()));
+                writer.write(',');
+                writer.write(csv(row.getFormationTitre()));
+                writer.write(',');
+                writer.write(csv(row.getDateDebut()));
+                writer.write(',');
+                writer.write(csv(row.getDateFin()));
+                writer.write(',');
+                writer.write(csv(row.getCategorieNom()));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Guillemets seulement si nécessaire (séparateur, guillemet ou retour à la ligne)
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
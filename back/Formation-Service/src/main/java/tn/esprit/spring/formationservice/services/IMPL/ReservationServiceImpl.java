@@ -1,7 +1,15 @@
 package tn.esprit.spring.formationservice.services.IMPL;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.formationservice.cache.IntervalTree;
+import tn.esprit.spring.formationservice.cache.ParticipantScheduleCache;
+import tn.esprit.spring.formationservice.dto.BulkReservationRequest;
+import tn.esprit.spring.formationservice.dto.BulkReservationResult;
+import tn.esprit.spring.formationservice.dto.FormationPeriod;
+import tn.esprit.spring.formationservice.dto.ParticipantPeriod;
 import tn.esprit.spring.formationservice.entity.Formation;
 import tn.esprit.spring.formationservice.entity.Reservation;
 import tn.esprit.spring.formationservice.entity.StatutReservation;
@@ -10,20 +18,32 @@ import tn.esprit.spring.formationservice.repository.ReservationRepository;
 import tn.esprit.spring.formationservice.services.interfaces.IReservationService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 @Service
 @RequiredArgsConstructor
 public class ReservationServiceImpl implements IReservationService {
 
+    private static final int PRELOAD_CHUNK = 1000;
+
     private final ReservationRepository reservationRepository;
     private  final FormationRepository formationRepository;
+    private final ParticipantLocks participantLocks;
+    private final ParticipantScheduleCache scheduleCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public Reservation addReservation(Reservation reservation) {
 
         // 1. Charger la formation à réserver
-        Formation formationDemandee = formationRepository.findById(reservation.getFormation().getId())
+        Formation formationDemandee = formationRepository.findWithCategorieById(reservation.getFormation().getId())
                 .orElseThrow(() -> new RuntimeException("Formation introuvable"));
 
         LocalDateTime debutDemandee = formationDemandee.getDateDebut();
@@ -33,37 +53,191 @@ public class ReservationServiceImpl implements IReservationService {
             throw new IllegalStateException("Les dates de la formation doivent être renseignées.");
         }
 
-        // 2. Récupérer les réservations existantes du participant qui sont confirmées ou en attente
-        List<Reservation> reservationsExistantes = reservationRepository.findByParticipantIdAndStatutIn(
-                reservation.getParticipantId(),
-                List.of(StatutReservation.CONFIRME, StatutReservation.EN_ATTENTE));
+        // 2. Vérification + enregistrement sous verrou : deux demandes simultanées du même
+        //    participant ne peuvent pas passer la vérification toutes les deux
+        Lock lock = participantLocks.lockFor(reservation.getParticipantId());
+        lock.lock();
+        try {
+            // 3. Recherche d'un chevauchement : index en mémoire, ou une requête SQL indexée
+            checkNoOverlap(reservation.getParticipantId(), formationDemandee);
 
-        // 3. Vérifier que la nouvelle formation ne chevauche aucune réservation existante
-        for (Reservation resExist : reservationsExistantes) {
-            Formation formationExistante = resExist.getFormation();
-            if (formationExistante == null) continue;
+            // 4. Pas de conflit : préparer la réservation
+            reservation.setFormation(formationDemandee);
+            reservation.setDateReservation(LocalDateTime.now());
 
-            LocalDateTime debutExistante = formationExistante.getDateDebut();
-            LocalDateTime finExistante = formationExistante.getDateFin();
+            // 5. Sauvegarder la réservation (commit avant de libérer le verrou)
+            Reservation saved = reservationRepository.save(reservation);
+            scheduleCache.onReservationSaved(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            if (debutExistante == null || finExistante == null) continue;
+    private void checkNoOverlap(Long participantId, Formation formation) {
+        LocalDateTime debutExistante;
+        LocalDateTime finExistante;
+        if (scheduleCache.isEnabled()) {
+            IntervalTree.Interval conflit = scheduleCache.findOverlap(participantId, formation);
+            if (conflit == null) {
+                return;
+            }
+            debutExistante = conflit.getStart();
+            finExistante = conflit.getEnd();
+        } else {
+            List<FormationPeriod> conflits = reservationRepository.findOverlapping(participantId,
+                    ParticipantScheduleCache.STATUTS_ACTIFS, formation.getDateDebut(), formation.getDateFin(),
+                    PageRequest.of(0, 1));
+            if (conflits.isEmpty()) {
+                return;
+            }
+            debutExistante = conflits.get(0).getDateDebut();
+            finExistante = conflits.get(0).getDateFin();
+        }
+        throw new IllegalStateException(conflictMessage(debutExistante, finExistante));
+    }
 
-            boolean chevauchement = !(finDemandee.isBefore(debutExistante) || debutDemandee.isAfter(finExistante));
-            if (chevauchement) {
-                throw new IllegalStateException("Vous avez déjà une formation prévue entre "
-                        + debutExistante + " et " + finExistante);
+    private static String conflictMessage(LocalDateTime debutExistante, LocalDateTime finExistante) {
+        return "Vous avez déjà une formation prévue entre " + debutExistante + " et " + finExistante;
+    }
+    // Création en masse : vérifications sous les verrous de tous les participants concernés,
+    // puis une seule transaction (insertions envoyées par lots JDBC). Les lignes en conflit sont refusées.
+    @Override
+    public BulkReservationResult addReservations(List<BulkReservationRequest> requests) {
+        Set<Long> formationIds = new HashSet<>();
+        Set<Long> participantIds = new HashSet<>();
+        for (BulkReservationRequest request : requests) {
+            formationIds.add(request.getFormationId());
+            participantIds.add(request.getParticipantId());
+        }
+        formationIds.remove(null);
+        Map<Long, Formation> formations = new HashMap<>();
+        formationRepository.findAllById(formationIds).forEach(f -> formations.put(f.getId(), f));
+
+        BulkReservationResult result = new BulkReservationResult();
+        List<Lock> locks = participantLocks.locksFor(participantIds);
+        locks.forEach(Lock::lock);
+        try {
+            // Créneaux déjà réservés lus une fois pour tout le lot : index en mémoire, ou une requête par
+            // tranche de participants limitée à la période du lot (mode "database")
+            Map<Long, List<FormationPeriod>> existingByParticipant = null;
+            if (scheduleCache.isEnabled()) {
+                scheduleCache.preload(participantIds);
+            } else {
+                existingByParticipant = loadOverlappingPeriods(participantIds, formations.values());
             }
+            Map<Long, List<Formation>> acceptedByParticipant = new HashMap<>();
+            List<Reservation> toSave = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < requests.size(); i++) {
+                BulkReservationRequest request = requests.get(i);
+                Formation formation = formations.get(request.getFormationId());
+                String reason = rejectionReason(request, formation, existingByParticipant, acceptedByParticipant);
+                if (reason != null) {
+                    result.getRejected().add(new BulkReservationResult.Rejection(i, reason));
+                    continue;
+                }
+                acceptedByParticipant.computeIfAbsent(request.getParticipantId(), p -> new ArrayList<>()).add(formation);
+                toSave.add(Reservation.builder()
+                        .participantId(request.getParticipantId())
+                        .formation(formation)
+                        .statut(request.getStatut() != null ? request.getStatut() : StatutReservation.EN_ATTENTE)
+                        .dateReservation(now)
+                        .build());
+            }
+
+            List<Reservation> saved = transactionTemplate.execute(status -> reservationRepository.saveAll(toSave));
+            saved.forEach(scheduleCache::onReservationSaved);
+            result.setCreated(saved.size());
+            return result;
+        } finally {
+            locks.forEach(Lock::unlock);
         }
+    }
 
-        // 4. Pas de conflit : préparer la réservation
-        reservation.setFormation(formationDemandee);
-        reservation.setDateReservation(LocalDateTime.now());
+    private Map<Long, List<FormationPeriod>> loadOverlappingPeriods(Set<Long> participantIds,
+                                                                    Collection<Formation> formations) {
+        Map<Long, List<FormationPeriod>> existing = new HashMap<>();
+        LocalDateTime debut = null;
+        LocalDateTime fin = null;
+        for (Formation formation : formations) {
+            if (formation.getDateDebut() == null || formation.getDateFin() == null) {
+                continue;
+            }
+            debut = debut == null || formation.getDateDebut().isBefore(debut) ? formation.getDateDebut() : debut;
+            fin = fin == null || formation.getDateFin().isAfter(fin) ? formation.getDateFin() : fin;
+        }
+        List<Long> ids = new ArrayList<>(participantIds);
+        ids.remove(null);
+        if (debut == null || ids.isEmpty()) {
+            return existing;
+        }
+        for (int from = 0; from < ids.size(); from += PRELOAD_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + PRELOAD_CHUNK, ids.size()));
+            for (ParticipantPeriod period : reservationRepository.findOverlappingPeriods(
+                    chunk, ParticipantScheduleCache.STATUTS_ACTIFS, debut, fin)) {
+                existing.computeIfAbsent(period.getParticipantId(), p -> new ArrayList<>()).add(period);
+            }
+        }
+        return existing;
+    }
 
-        
+    private String rejectionReason(BulkReservationRequest request, Formation formation,
+                                   Map<Long, List<FormationPeriod>> existingByParticipant,
+                                   Map<Long, List<Formation>> acceptedByParticipant) {
+        if (request.getParticipantId() == null) {
+            return "Participant manquant";
+        }
+        if (formation == null) {
+            return "Formation introuvable";
+        }
+        if (formation.getDateDebut() == null || formation.getDateFin() == null) {
+            return "Les dates de la formation doivent être renseignées.";
+        }
+        if (existingByParticipant == null) {
+            try {
+                checkNoOverlap(request.getParticipantId(), formation);
+            } catch (IllegalStateException e) {
+                return e.getMessage();
+            }
+        } else {
+            for (FormationPeriod period : existingByParticipant.getOrDefault(request.getParticipantId(), List.of())) {
+                if (!period.getDateDebut().isAfter(formation.getDateFin())
+                        && !period.getDateFin().isBefore(formation.getDateDebut())) {
+                    return conflictMessage(period.getDateDebut(), period.getDateFin());
+                }
+            }
+        }
+        // Conflit avec une ligne déjà acceptée dans ce même lot
+        for (Formation other : acceptedByParticipant.getOrDefault(request.getParticipantId(), List.of())) {
+            if (!other.getDateDebut().isAfter(formation.getDateFin())
+                    && !other.getDateFin().isBefore(formation.getDateDebut())) {
+                return "Conflit dans le lot avec la formation prévue entre "
+                        + other.getDateDebut() + " et " + other.getDateFin();
+            }
+        }
+        return null;
+    }
 
-        // 5. Sauvegarder la réservation
-        return reservationRepository.save(reservation);
+    // Changement de statut en masse : entités modifiées dans une transaction, mises à jour envoyées par lots
+    @Override
+    public int updateReservationStatuses(List<Long> reservationIds, String status) {
+        StatutReservation statut = StatutReservation.valueOf(status);
+        List<Lock> locks = participantLocks.locksFor(reservationRepository.findParticipantIdsByIdIn(reservationIds));
+        locks.forEach(Lock::lock);
+        try {
+            List<Reservation> updated = transactionTemplate.execute(tx -> {
+                List<Reservation> reservations = reservationRepository.findAllById(reservationIds);
+                reservations.forEach(reservation -> reservation.setStatut(statut));
+                return reservations;
+            });
+            updated.forEach(scheduleCache::onReservationSaved);
+            return updated.size();
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
     }
+
     @Override
     public List<Reservation> getAllReservations() {
         return reservationRepository.findAll();
@@ -82,7 +256,15 @@ public class ReservationServiceImpl implements IReservationService {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
-        reservation.setStatut(StatutReservation.valueOf(status));
-        return reservationRepository.save(reservation);
+        Lock lock = participantLocks.lockFor(reservation.getParticipantId());
+        lock.lock();
+        try {
+            reservation.setStatut(StatutReservation.valueOf(status));
+            Reservation saved = reservationRepository.save(reservation);
+            scheduleCache.onReservationSaved(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -1,5 +1,6 @@
 package tn.esprit.spring.formationservice.services.interfaces;
 
+import tn.esprit.spring.formationservice.dto.CategorieSummary;
 import tn.esprit.spring.formationservice.entity.Categorie;
 
 import java.util.List;
@@ -9,4 +10,6 @@ public interface ICategorieService {
     List<Categorie> getAllCategories();
     Categorie getCategorieById(Long id);
     void deleteCategorie(Long id);
+    List<CategorieSummary> getCategorieSummaries();
+    void evictCategorieCache();
 }
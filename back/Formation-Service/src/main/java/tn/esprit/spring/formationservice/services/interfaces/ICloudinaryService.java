@@ -2,9 +2,28 @@
 package tn.esprit.spring.formationservice.services.interfaces;
 
 import org.springframework.web.multipart.MultipartFile;
+import tn.esprit.spring.formationservice.dto.SpooledImage;
+import tn.esprit.spring.formationservice.entity.ImageAsset;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
 
 public interface ICloudinaryService {
     String uploadImage(MultipartFile file) throws IOException;
+
+    // Envoi en streaming depuis le disque, sans charger le fichier en mémoire
+    String uploadImage(File file) throws IOException;
+
+    // Copie le flux sur disque en calculant son SHA-256 au fil de la lecture
+    SpooledImage spool(InputStream content) throws IOException;
+
+    Optional<ImageAsset> findByContentHash(String contentHash);
+
+    // Envoie l'image seulement si son contenu n'est pas déjà connu
+    ImageAsset storeImage(SpooledImage image) throws IOException;
+
+    // Génère la miniature de taille fixe, l'envoie et l'associe à l'image
+    ImageAsset storeThumbnail(ImageAsset asset, SpooledImage image) throws IOException;
 }
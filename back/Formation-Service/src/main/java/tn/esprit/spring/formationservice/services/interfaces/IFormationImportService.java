@@ -0,0 +1,10 @@
+package tn.esprit.spring.formationservice.services.interfaces;
+
+import tn.esprit.spring.formationservice.dto.FormationImportReport;
+import tn.esprit.spring.formationservice.importing.ImportFormat;
+
+import java.io.InputStream;
+
+public interface IFormationImportService {
+    FormationImportReport importFormations(InputStream body, ImportFormat format);
+}
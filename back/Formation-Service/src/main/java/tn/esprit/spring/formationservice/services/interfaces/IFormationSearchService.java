@@ -0,0 +1,9 @@
+package tn.esprit.spring.formationservice.services.interfaces;
+
+import tn.esprit.spring.formationservice.dto.FormationSearchPage;
+
+public interface IFormationSearchService {
+    boolean isReady();
+    FormationSearchPage search(String query, int page, int size);
+    void rebuild();
+}
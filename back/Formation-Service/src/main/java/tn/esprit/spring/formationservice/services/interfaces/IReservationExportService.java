@@ -0,0 +1,13 @@
+package tn.esprit.spring.formationservice.services.interfaces;
+
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.exporting.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface IReservationExportService {
+    void export(Long formationId, StatutReservation statut, LocalDateTime from, LocalDateTime to,
+                ExportFormat format, OutputStream out) throws IOException;
+}
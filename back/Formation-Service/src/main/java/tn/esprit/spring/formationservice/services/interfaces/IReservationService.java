@@ -1,5 +1,7 @@
 package tn.esprit.spring.formationservice.services.interfaces;
 
+import tn.esprit.spring.formationservice.dto.BulkReservationRequest;
+import tn.esprit.spring.formationservice.dto.BulkReservationResult;
 import tn.esprit.spring.formationservice.entity.Reservation;
 
 import java.util.List;
@@ -11,4 +13,9 @@ public interface IReservationService {
 
     List<Reservation> getReservationsByFormation(Long formationId);
 
-    Reservation updateReservationStatus(Long reservationId, String status);}
+    Reservation updateReservationStatus(Long reservationId, String status);
+
+    BulkReservationResult addReservations(List<BulkReservationRequest> requests);
+
+    int updateReservationStatuses(List<Long> reservationIds, String status);
+}
@@ -0,0 +1,41 @@
+package tn.esprit.spring.formationservice.aspects;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.services.interfaces.ICategorieService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Chaque appel de service ou de repository alimente un Timer method.timed avec ses percentiles
+@SpringBootTest(properties = "perf.aspect.sample-rate=1.0")
+class PerformanceAspectTests {
+
+    @Autowired
+    private ICategorieService categorieService;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void recordsServiceAndRepositoryTimers() {
+        categorieService.getAllCategories();
+        categorieRepository.count();
+
+        Timer service = registry.find(PerformanceAspect.METRIC_NAME)
+                .tag("class", "CategorieServiceImpl").tag("method", "getAllCategories").timer();
+        assertThat(service).isNotNull();
+        assertThat(service.count()).isGreaterThanOrEqualTo(1);
+        assertThat(service.takeSnapshot().percentileValues()).hasSize(3);
+
+        // Le proxy Spring Data est rattaché à l'interface déclarée, pas à SimpleJpaRepository
+        Timer repository = registry.find(PerformanceAspect.METRIC_NAME)
+                .tag("class", "CategorieRepository").tag("method", "count").timer();
+        assertThat(repository).isNotNull();
+        assertThat(repository.count()).isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,55 @@
+package tn.esprit.spring.formationservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTests {
+
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void matchesBruteForceAfterInsertsAndRemovals() {
+        Random random = new Random(7);
+        IntervalTree tree = new IntervalTree();
+        List<IntervalTree.Interval> intervals = new ArrayList<>();
+
+        for (long id = 0; id < 2000; id++) {
+            LocalDateTime start = ORIGIN.plusHours(random.nextInt(20_000));
+            IntervalTree.Interval interval = new IntervalTree.Interval(id, start, start.plusHours(1 + random.nextInt(48)));
+            tree.insert(interval);
+            intervals.add(interval);
+            if (random.nextInt(3) == 0) {
+                IntervalTree.Interval removed = intervals.remove(random.nextInt(intervals.size()));
+                tree.remove(removed);
+            }
+        }
+        assertThat(tree.size()).isEqualTo(intervals.size());
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime start = ORIGIN.plusHours(random.nextInt(20_000));
+            LocalDateTime end = start.plusHours(random.nextInt(24));
+            boolean expected = intervals.stream().anyMatch(interval -> interval.overlaps(start, end));
+            IntervalTree.Interval found = tree.findOverlap(start, end);
+            assertThat(found != null).isEqualTo(expected);
+            if (found != null) {
+                assertThat(found.overlaps(start, end)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void boundsAreInclusive() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(new IntervalTree.Interval(1L, ORIGIN, ORIGIN.plusHours(2)));
+
+        assertThat(tree.findOverlap(ORIGIN.plusHours(2), ORIGIN.plusHours(3))).isNotNull();
+        assertThat(tree.findOverlap(ORIGIN.minusHours(1), ORIGIN)).isNotNull();
+        assertThat(tree.findOverlap(ORIGIN.plusHours(2).plusMinutes(1), ORIGIN.plusHours(3))).isNull();
+    }
+}
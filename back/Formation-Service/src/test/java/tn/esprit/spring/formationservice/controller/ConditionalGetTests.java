@@ -0,0 +1,155 @@
+package tn.esprit.spring.formationservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ETag / If-None-Match sur le catalogue et concurrence optimiste sur la mise à jour
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Formation formation;
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+
+        Categorie categorie = categorieRepository.save(Categorie.builder().nom("Data").build());
+        LocalDateTime debut = LocalDateTime.of(2031, 3, 1, 9, 0);
+        formation = formationRepository.save(Formation.builder()
+                .titre("Spark")
+                .dateDebut(debut)
+                .dateFin(debut.plusHours(2))
+                .categorie(categorie)
+                .build());
+    }
+
+    @Test
+    void unchangedCatalogueAnswers304WithoutLoadingEntities() throws Exception {
+        String etag = mockMvc.perform(get("/api/formations"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/formations").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        formation.setTitre("Spark avancé");
+        formationRepository.save(formation);
+        mockMvc.perform(get("/api/formations").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void formationEtagOnlyChangesWithItsOwnReservations() throws Exception {
+        LocalDateTime debut = LocalDateTime.of(2031, 4, 1, 9, 0);
+        Formation other = formationRepository.save(Formation.builder()
+                .titre("Kafka")
+                .dateDebut(debut)
+                .dateFin(debut.plusHours(2))
+                .categorie(formation.getCategorie())
+                .build());
+        String url = "/api/formations/" + formation.getId();
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        reservationRepository.save(Reservation.builder()
+                .participantId(1L).formation(other).statut(StatutReservation.CONFIRME)
+                .dateReservation(LocalDateTime.now()).build());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // La liste complète contient les réservations : elle change
+        mockMvc.perform(get("/api/formations").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        reservationRepository.save(Reservation.builder()
+                .participantId(2L).formation(formation).statut(StatutReservation.CONFIRME)
+                .dateReservation(LocalDateTime.now()).build());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/formations"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            formation.setTitre("Jamais validé");
+            formationRepository.saveAndFlush(formation);
+            status.setRollbackOnly();
+        });
+        mockMvc.perform(get("/api/formations").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void staleVersionIsRejectedWithConflict() throws Exception {
+        Formation current = formationRepository.findById(formation.getId()).orElseThrow();
+        Long staleVersion = current.getVersion();
+
+        current.setTitre("Première modification");
+        formationRepository.save(current);
+
+        Formation stale = Formation.builder()
+                .id(formation.getId())
+                .version(staleVersion)
+                .titre("Seconde modification")
+                .build();
+        mockMvc.perform(put("/api/formations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stale)))
+                .andExpect(status().isConflict());
+
+        assertThat(formationRepository.findById(formation.getId()).orElseThrow().getTitre())
+                .isEqualTo("Première modification");
+    }
+}
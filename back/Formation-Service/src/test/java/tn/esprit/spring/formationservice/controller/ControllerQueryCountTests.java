@@ -0,0 +1,130 @@
+package tn.esprit.spring.formationservice.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.services.IMPL.CategorieServiceImpl;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Vérifie que le nombre de requêtes SQL par endpoint ne dépend pas du volume de données
+@SpringBootTest
+@AutoConfigureMockMvc
+class ControllerQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long formationId;
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+        cacheManager.getCache(CategorieServiceImpl.CATEGORIES_CACHE).clear();
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        for (int c = 0; c < 3; c++) {
+            Categorie categorie = categorieRepository.save(Categorie.builder().nom("Categorie " + c).build());
+            for (int f = 0; f < 4; f++) {
+                LocalDateTime debut = start.plusDays(c * 10L + f);
+                Formation formation = formationRepository.save(Formation.builder()
+                        .titre("Formation " + c + "-" + f)
+                        .dateDebut(debut)
+                        .dateFin(debut.plusHours(3))
+                        .categorie(categorie)
+                        .build());
+                formationId = formation.getId();
+                for (int r = 0; r < 3; r++) {
+                    reservationRepository.save(Reservation.builder()
+                            .participantId((long) r)
+                            .statut(StatutReservation.CONFIRME)
+                            .dateReservation(LocalDateTime.now())
+                            .formation(formation)
+                            .build());
+                }
+            }
+        }
+    }
+
+    @Test
+    void getAllCategories() throws Exception {
+        assertThat(statementsFor("/api/categories")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getCategorieSummariesIsServedFromCache() throws Exception {
+        assertThat(statementsFor("/api/categories/summary")).isEqualTo(1);
+        assertThat(statementsFor("/api/categories/summary")).isZero();
+
+        mockMvc.perform(post("/api/categories/cache/evict")).andExpect(status().isNoContent());
+        assertThat(statementsFor("/api/categories/summary")).isEqualTo(1);
+    }
+
+    @Test
+    void getAllFormations() throws Exception {
+        assertThat(statementsFor("/api/formations")).isEqualTo(1);
+    }
+
+    @Test
+    void getFormationById() throws Exception {
+        assertThat(statementsFor("/api/formations/" + formationId)).isEqualTo(1);
+    }
+
+    @Test
+    void getFormationPage() throws Exception {
+        assertThat(statementsFor("/api/formations/page")).isEqualTo(1);
+    }
+
+    @Test
+    void getAllReservations() throws Exception {
+        assertThat(statementsFor("/api/reservations")).isEqualTo(1);
+    }
+
+    @Test
+    void getReservationsByParticipant() throws Exception {
+        assertThat(statementsFor("/api/reservations/participant/1")).isEqualTo(1);
+    }
+
+    @Test
+    void getReservationsByFormation() throws Exception {
+        assertThat(statementsFor("/api/reservations/formation/" + formationId)).isEqualTo(1);
+    }
+
+    private long statementsFor(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
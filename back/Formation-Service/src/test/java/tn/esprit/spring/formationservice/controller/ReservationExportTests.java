@@ -0,0 +1,94 @@
+package tn.esprit.spring.formationservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Export en flux des réservations : lignes à plat, filtres statut / date / formation
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Formation formation;
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+
+        Categorie categorie = categorieRepository.save(Categorie.builder().nom("Data, IA").build());
+        LocalDateTime debut = LocalDateTime.of(2030, 9, 1, 9, 0);
+        formation = formationRepository.save(Formation.builder()
+                .titre("Python \"avancé\"").dateDebut(debut).dateFin(debut.plusHours(3)).categorie(categorie).build());
+        Formation autre = formationRepository.save(Formation.builder()
+                .titre("SQL").dateDebut(debut.plusDays(1)).dateFin(debut.plusDays(1).plusHours(3)).build());
+
+        for (long p = 1; p <= 5; p++) {
+            reservationRepository.save(Reservation.builder()
+                    .participantId(p)
+                    .formation(p == 5 ? autre : formation)
+                    .statut(p % 2 == 0 ? StatutReservation.ANNULE : StatutReservation.CONFIRME)
+                    .dateReservation(LocalDateTime.of(2030, 8, (int) p, 10, 0))
+                    .build());
+        }
+    }
+
+    @Test
+    void exportsAttendeeListAsCsv() throws Exception {
+        String csv = export("/api/reservations/formation/" + formation.getId() + "/export?statut=CONFIRME");
+
+        String[] lines = csv.split("\n");
+        assertThat(lines[0]).startsWith("reservationId,participantId,statut");
+        assertThat(lines).hasSize(3); // participants 1 et 3
+        assertThat(lines[1]).contains(",1,CONFIRME,2030-08-01T10:00,")
+                .contains(",\"Python \"\"avancé\"\"\",")
+                .endsWith(",\"Data, IA\"");
+    }
+
+    @Test
+    void exportsAllReservationsAsNdjsonWithDateFilter() throws Exception {
+        String ndjson = export("/api/reservations/export?format=NDJSON&from=2030-08-02T00:00:00&to=2030-08-05T00:00:00");
+
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(3); // réservations des 2, 3 et 4 août
+        assertThat(lines[0]).contains("\"participantId\":2").contains("\"formationTitre\":\"Python \\\"avancé\\\"\"");
+    }
+
+    private String export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,82 @@
+package tn.esprit.spring.formationservice.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTests {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.index(1, 10L, fields("Développement Java avancé", "Spring Boot et microservices", "Tunis"));
+        index.index(2, 10L, fields("Introduction à Spring", "Les bases de Java pour débutants", "Sfax"));
+        index.index(3, 20L, fields("Gestion de projet", "Méthodes agiles et Scrum", "Tunis"));
+    }
+
+    @Test
+    void searchIsAccentAndCaseInsensitive() {
+        assertThat(index.search("DEVELOPPEMENT ", 0, 10).getIds()).containsExactly(1L);
+        assertThat(index.search("méthode ", 0, 10).getIds()).containsExactly(3L);
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() {
+        assertThat(index.search("micro", 0, 10).getIds()).containsExactly(1L);
+        assertThat(index.search("java débu", 0, 10).getIds()).containsExactly(2L);
+    }
+
+    @Test
+    void allWordsMustMatchAndTitleRanksFirst() {
+        // "java" est dans le titre de 1 et seulement dans la description de 2
+        assertThat(index.search("java ", 0, 10).getIds()).containsExactly(1L, 2L);
+        assertThat(index.search("java tunis ", 0, 10).getIds()).containsExactly(1L);
+        assertThat(index.search("java scrum ", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void stopwordsAreIgnored() {
+        assertThat(index.search("la gestion de projet ", 0, 10).getIds()).containsExactly(3L);
+    }
+
+    @Test
+    void paginationKeepsTotal() {
+        InvertedIndex.Result page = index.search("tunis ", 1, 1);
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getIds()).hasSize(1);
+    }
+
+    @Test
+    void pageBeyondResultsAllocatesNothing() {
+        InvertedIndex.Result page = index.search("tunis ", 2_000_000_000L * 100, 100);
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getIds()).isEmpty();
+    }
+
+    @Test
+    void reindexAndRemoveUpdatePostings() {
+        index.index(3, 20L, fields("Gestion de budget", "Finance", "Sousse"));
+        assertThat(index.search("projet ", 0, 10).getTotal()).isZero();
+        assertThat(index.search("budget ", 0, 10).getIds()).containsExactly(3L);
+
+        index.remove(3);
+        assertThat(index.search("budget ", 0, 10).getTotal()).isZero();
+
+        index.removeGroup(10L);
+        assertThat(index.size()).isZero();
+    }
+
+    private static Map<String, Float> fields(String titre, String description, String lieu) {
+        Map<String, Float> fields = new LinkedHashMap<>();
+        fields.put(titre, 3.0f);
+        fields.put(description, 1.0f);
+        fields.put(lieu, 1.5f);
+        return fields;
+    }
+}
@@ -0,0 +1,12 @@
+package tn.esprit.spring.formationservice.services;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Mêmes scénarios avec l'index des créneaux en mémoire.
+// Contexte séparé : sa propre base, pour ne pas recréer le schéma sous les autres tests
+@SpringBootTest(properties = {
+        "reservation.schedule-cache.mode=cache",
+        "spring.datasource.url=jdbc:h2:mem:formation-cache;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+class BulkReservationCacheModeTests extends BulkReservationTests {
+}
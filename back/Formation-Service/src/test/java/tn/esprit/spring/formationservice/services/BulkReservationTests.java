@@ -0,0 +1,108 @@
+package tn.esprit.spring.formationservice.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tn.esprit.spring.formationservice.cache.ParticipantScheduleCache;
+import tn.esprit.spring.formationservice.dto.BulkReservationRequest;
+import tn.esprit.spring.formationservice.dto.BulkReservationResult;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.services.interfaces.IReservationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Création et changement de statut en masse : refus des conflits et envoi par lots JDBC
+// Mode par défaut ("database") : chevauchements lus une fois pour le lot ; mode "cache" : BulkReservationCacheModeTests
+@SpringBootTest
+class BulkReservationTests {
+
+    private static final int PARTICIPANTS = 200;
+
+    @Autowired
+    private IReservationService reservationService;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private ParticipantScheduleCache scheduleCache;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Formation matin;
+    private Formation matinChevauchant;
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+        scheduleCache.clear();
+
+        LocalDateTime debut = LocalDateTime.of(2030, 6, 1, 9, 0);
+        matin = formationRepository.save(Formation.builder()
+                .titre("Matin").dateDebut(debut).dateFin(debut.plusHours(3)).build());
+        matinChevauchant = formationRepository.save(Formation.builder()
+                .titre("Matin bis").dateDebut(debut.plusHours(1)).dateFin(debut.plusHours(4)).build());
+    }
+
+    @Test
+    void createsValidRowsInBatchesAndRejectsConflicts() {
+        reservationRepository.save(Reservation.builder()
+                .participantId(1L).formation(matinChevauchant).statut(StatutReservation.CONFIRME)
+                .dateReservation(LocalDateTime.now()).build());
+
+        List<BulkReservationRequest> requests = new ArrayList<>();
+        for (long p = 1; p <= PARTICIPANTS; p++) {
+            requests.add(new BulkReservationRequest(p, matin.getId(), StatutReservation.CONFIRME));
+        }
+        requests.add(new BulkReservationRequest(2L, matinChevauchant.getId(), null)); // conflit dans le lot
+        requests.add(new BulkReservationRequest(3L, -1L, null));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BulkReservationResult result = reservationService.addReservations(requests);
+
+        assertThat(result.getCreated()).isEqualTo(PARTICIPANTS - 1);
+        assertThat(result.getRejected()).extracting(BulkReservationResult.Rejection::getIndex)
+                .containsExactly(0, PARTICIPANTS, PARTICIPANTS + 1);
+        assertThat(reservationRepository.count()).isEqualTo(PARTICIPANTS);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(PARTICIPANTS - 1);
+        // 199 insertions en lots de 50 : quelques instructions préparées, pas une par ligne
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(PARTICIPANTS / 2);
+    }
+
+    @Test
+    void updatesStatusesInOneTransaction() {
+        List<BulkReservationRequest> requests = new ArrayList<>();
+        for (long p = 1; p <= PARTICIPANTS; p++) {
+            requests.add(new BulkReservationRequest(p, matin.getId(), StatutReservation.EN_ATTENTE));
+        }
+        reservationService.addReservations(requests);
+        List<Long> ids = reservationRepository.findAll().stream().map(Reservation::getId).toList();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        int updated = reservationService.updateReservationStatuses(ids, "CONFIRME");
+
+        assertThat(updated).isEqualTo(PARTICIPANTS);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(PARTICIPANTS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(PARTICIPANTS / 2);
+        assertThat(reservationRepository.findAll()).allMatch(r -> r.getStatut() == StatutReservation.CONFIRME);
+    }
+}
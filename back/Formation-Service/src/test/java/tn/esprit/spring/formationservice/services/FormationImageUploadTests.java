@@ -0,0 +1,164 @@
+package tn.esprit.spring.formationservice.services;
+
+import com.cloudinary.Cloudinary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockMultipartFile;
+import tn.esprit.spring.formationservice.dto.FormationRequest;
+import tn.esprit.spring.formationservice.dto.SpooledImage;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.ImageAsset;
+import tn.esprit.spring.formationservice.entity.ImageStatus;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ImageAssetRepository;
+import tn.esprit.spring.formationservice.services.IMPL.CloudinaryServiceImpl;
+import tn.esprit.spring.formationservice.services.interfaces.ICloudinaryService;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class FormationImageUploadTests {
+
+    private static final long UPLOAD_LATENCY_MS = 1500;
+    private static final AtomicInteger UPLOADS = new AtomicInteger();
+
+    @Autowired
+    private IFormationService formationService;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ImageAssetRepository imageAssetRepository;
+    @Autowired
+    private ICloudinaryService cloudinaryService;
+
+    @BeforeEach
+    void reset() {
+        imageAssetRepository.deleteAll();
+        UPLOADS.set(0);
+    }
+
+    @Test
+    void formationIsSavedBeforeTheImageUploadCompletes() throws Exception {
+        long start = System.currentTimeMillis();
+        Formation saved = formationService.addFormation(request(), image(800, 600));
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(UPLOAD_LATENCY_MS);
+        assertThat(saved.getImageStatus()).isEqualTo(ImageStatus.PENDING);
+        assertThat(saved.getImageUrl()).isNull();
+
+        Formation uploaded = await(saved.getId(), f -> f.getThumbnailUrl() != null);
+        assertThat(uploaded.getImageStatus()).isEqualTo(ImageStatus.READY);
+        assertThat(uploaded.getImageUrl()).isEqualTo("https://images.test/1");
+        assertThat(uploaded.getThumbnailUrl()).isEqualTo("https://images.test/2");
+    }
+
+    @Test
+    void sameContentIsUploadedOnlyOnce() throws Exception {
+        Formation first = formationService.addFormation(request(), image(640, 480));
+        await(first.getId(), f -> f.getThumbnailUrl() != null);
+
+        long start = System.currentTimeMillis();
+        Formation second = formationService.addFormation(request(), image(640, 480));
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(UPLOAD_LATENCY_MS);
+        assertThat(second.getImageStatus()).isEqualTo(ImageStatus.READY);
+        assertThat(second.getImageUrl()).isEqualTo("https://images.test/1");
+        assertThat(second.getThumbnailUrl()).isEqualTo("https://images.test/2");
+        assertThat(UPLOADS.get()).isEqualTo(2); // image + miniature, une seule fois
+    }
+
+    @Test
+    void thumbnailRefusesImagesAnnouncingTooManyPixels() throws Exception {
+        SpooledImage bomb = cloudinaryService.spool(new ByteArrayInputStream(pngHeader(50_000, 50_000)));
+        try {
+            ImageAsset asset = ImageAsset.builder().contentHash(bomb.getContentHash()).url("https://images.test/bomb").build();
+            assertThatThrownBy(() -> cloudinaryService.storeThumbnail(asset, bomb))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("50000x50000");
+            assertThat(UPLOADS.get()).isZero();
+        } finally {
+            Files.deleteIfExists(bomb.getFile());
+        }
+    }
+
+    private static FormationRequest request() {
+        FormationRequest request = new FormationRequest();
+        request.setTitre("Spring Boot");
+        request.setMode("presentiel");
+        request.setLieu("Tunis");
+        request.setDateDebut(LocalDateTime.of(2030, 5, 1, 9, 0));
+        request.setDateFin(LocalDateTime.of(2030, 5, 1, 12, 0));
+        return request;
+    }
+
+    private static MockMultipartFile image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("image", "banner.png", "image/png", out.toByteArray());
+    }
+
+    // Signature + IHDR seul : les dimensions annoncées sans aucune donnée de pixel
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(17);
+        ihdr.put("IHDR".getBytes(StandardCharsets.US_ASCII)).putInt(width).putInt(height)
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(8 + 4 + 17 + 4)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue())
+                .array();
+    }
+
+    private Formation await(Long id, Predicate<Formation> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Formation formation = formationRepository.findWithCategorieById(id).orElseThrow();
+        while (!condition.test(formation) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            formation = formationRepository.findWithCategorieById(id).orElseThrow();
+        }
+        return formation;
+    }
+
+    // Remplace l'envoi vers Cloudinary par un stub local avec une latence configurable
+    @TestConfiguration
+    static class StubCloudinaryConfig {
+        @Bean
+        @Primary
+        ICloudinaryService stubCloudinaryService(Cloudinary cloudinary, ImageAssetRepository imageAssetRepository) {
+            return new CloudinaryServiceImpl(cloudinary, imageAssetRepository) {
+                @Override
+                public String uploadImage(File file) {
+                    try {
+                        Thread.sleep(UPLOAD_LATENCY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "https://images.test/" + UPLOADS.incrementAndGet();
+                }
+            };
+        }
+    }
+}
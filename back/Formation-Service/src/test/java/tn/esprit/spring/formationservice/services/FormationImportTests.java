@@ -0,0 +1,119 @@
+package tn.esprit.spring.formationservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.formationservice.dto.FormationImportReport;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.importing.ImportFormat;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationImportService;
+import tn.esprit.spring.formationservice.services.interfaces.IFormationSearchService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Import en flux CSV / NDJSON : lignes valides enregistrées, lignes invalides rapportées
+@SpringBootTest
+@AutoConfigureMockMvc
+class FormationImportTests {
+
+    private static final int ROWS = 2500;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private IFormationImportService importService;
+    @Autowired
+    private IFormationSearchService searchService;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Categorie categorie;
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+        categorie = categorieRepository.save(Categorie.builder().nom("Cloud").build());
+    }
+
+    @Test
+    void csvImportReportsInvalidRows() throws Exception {
+        String csv = "titre;dateDebut;dateFin;categorieId;description;enLigne\r\n"
+                + "Kubernetes;2031-01-10T09:00;2031-01-10T12:00;" + categorie.getId() + ";\"Pods; services\n\"\"et\"\" ingress\";oui\r\n"
+                + ";2031-01-11T09:00;2031-01-11T12:00;;;\r\n"
+                + "Terraform;2031-01-12 09:00;2031-01-12 08:00;;;non\r\n"
+                + "Ansible;2031-01-13T09:00;2031-01-13T12:00;999999;;\r\n";
+
+        mockMvc.perform(post("/api/formations/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[2].line").value(6));
+
+        Formation imported = formationRepository.findAll().get(0);
+        assertThat(imported.getDescription()).isEqualTo("Pods; services\n\"et\" ingress");
+        assertThat(imported.isEnLigne()).isTrue();
+        assertThat(imported.getCategorie().getId()).isEqualTo(categorie.getId());
+        assertThat(searchService.search("kuber", 0, 10).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void ndjsonImportStreamsManyRowsInChunks() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            ndjson.append("{\"titre\":\"Atelier ").append(i)
+                    .append("\",\"dateDebut\":\"2032-02-01T09:00\",\"dateFin\":\"2032-02-01T17:00\",\"categorieId\":")
+                    .append(categorie.getId()).append(",\"formateurId\":").append(i % 7).append("}\n");
+        }
+        ndjson.append("{pas du json}\n");
+
+        FormationImportReport report = importService.importFormations(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        assertThat(report.getTotal()).isEqualTo(ROWS + 1);
+        assertThat(report.getImported()).isEqualTo(ROWS);
+        assertThat(report.getErrors()).singleElement()
+                .extracting(FormationImportReport.RowError::getLine).isEqualTo(ROWS + 1);
+        assertThat(formationRepository.count()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void outOfRangeNumberAndUnterminatedQuoteAreReportedNotThrown() throws Exception {
+        String csv = "titre,dateDebut,dateFin,dureePauseMinutes\n"
+                + "Docker,2031-03-01T09:00,2031-03-01T12:00,15\n"
+                + "Helm,2031-03-02T09:00,2031-03-02T12:00,99999999999\n"
+                + "Vault,2031-03-03T09:00,2031-03-03T12:00,\"30\n"
+                + "Consul,2031-03-04T09:00,2031-03-04T12:00,10\n";
+
+        mockMvc.perform(post("/api/formations/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[1].line").value(4));
+
+        assertThat(formationRepository.findAll()).extracting(Formation::getTitre).containsExactly("Docker");
+    }
+}
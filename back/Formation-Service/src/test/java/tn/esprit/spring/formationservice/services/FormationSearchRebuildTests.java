@@ -0,0 +1,81 @@
+package tn.esprit.spring.formationservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.search.FormationChangedEvent;
+import tn.esprit.spring.formationservice.services.IMPL.FormationSearchServiceImpl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Modifications reçues pendant la reconstruction de l'index : jamais écrasées par les lignes lues avant elles
+@SpringBootTest
+class FormationSearchRebuildTests {
+
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Formation docker;
+    private Formation terraform;
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+        LocalDateTime debut = LocalDateTime.of(2031, 5, 1, 9, 0);
+        docker = formationRepository.save(Formation.builder()
+                .titre("Docker").dateDebut(debut).dateFin(debut.plusHours(2)).build());
+        terraform = formationRepository.save(Formation.builder()
+                .titre("Terraform").dateDebut(debut).dateFin(debut.plusHours(2)).build());
+    }
+
+    @Test
+    void changesDuringRebuildAreReplayedAfterTheBatches() {
+        AtomicBoolean changed = new AtomicBoolean();
+        FormationSearchServiceImpl[] service = new FormationSearchServiceImpl[1];
+
+        // Le lot est lu, puis une modification et une suppression sont validées avant qu'il soit indexé
+        FormationRepository racing = (FormationRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{FormationRepository.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(formationRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("findIndexRows") && changed.compareAndSet(false, true)) {
+                        docker.setTitre("Kubernetes");
+                        formationRepository.save(docker);
+                        service[0].onFormationChanged(new FormationChangedEvent(docker.getId(), false));
+                        formationRepository.deleteById(terraform.getId());
+                        service[0].onFormationChanged(new FormationChangedEvent(terraform.getId(), true));
+                    }
+                    return result;
+                });
+        service[0] = new FormationSearchServiceImpl(racing);
+        ReflectionTestUtils.setField(service[0], "batchSize", 1000);
+
+        service[0].rebuild();
+
+        assertThat(service[0].search("kubernetes", 0, 10).getTotal()).isEqualTo(1);
+        assertThat(service[0].search("docker", 0, 10).getTotal()).isZero();
+        assertThat(service[0].search("terraform", 0, 10).getTotal()).isZero();
+    }
+}
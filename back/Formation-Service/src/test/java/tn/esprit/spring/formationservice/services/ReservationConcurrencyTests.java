@@ -0,0 +1,113 @@
+package tn.esprit.spring.formationservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tn.esprit.spring.formationservice.cache.ParticipantScheduleCache;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.services.interfaces.IReservationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Réservations parallèles d'un même participant sur des créneaux qui se chevauchent
+@SpringBootTest
+class ReservationConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private IReservationService reservationService;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private ParticipantScheduleCache scheduleCache;
+
+    private final List<Formation> formations = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+        scheduleCache.clear();
+        formations.clear();
+
+        LocalDateTime debut = LocalDateTime.of(2030, 3, 1, 9, 0);
+        for (int i = 0; i < 4; i++) {
+            // Toutes les formations chevauchent la même matinée
+            formations.add(formationRepository.save(Formation.builder()
+                    .titre("Formation " + i)
+                    .dateDebut(debut.plusMinutes(30L * i))
+                    .dateFin(debut.plusHours(3))
+                    .build()));
+        }
+    }
+
+    @Test
+    void onlyOneOverlappingBookingSucceeds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Formation formation = formations.get(i % formations.size());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.addReservation(Reservation.builder()
+                                .participantId(42L)
+                                .statut(StatutReservation.EN_ATTENTE)
+                                .formation(Formation.builder().id(formation.getId()).build())
+                                .build());
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+            assertThat(reservationRepository.findByParticipantId(42L)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentParticipantsAreNotBlocked() {
+        for (long participant = 1; participant <= 5; participant++) {
+            reservationService.addReservation(Reservation.builder()
+                    .participantId(participant)
+                    .statut(StatutReservation.CONFIRME)
+                    .formation(Formation.builder().id(formations.get(0).getId()).build())
+                    .build());
+        }
+        assertThat(reservationRepository.count()).isEqualTo(5);
+    }
+}
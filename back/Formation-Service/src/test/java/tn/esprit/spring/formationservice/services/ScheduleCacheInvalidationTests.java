@@ -0,0 +1,108 @@
+package tn.esprit.spring.formationservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tn.esprit.spring.formationservice.cache.ParticipantScheduleCache;
+import tn.esprit.spring.formationservice.entity.Categorie;
+import tn.esprit.spring.formationservice.entity.Formation;
+import tn.esprit.spring.formationservice.entity.Reservation;
+import tn.esprit.spring.formationservice.entity.StatutReservation;
+import tn.esprit.spring.formationservice.repository.CategorieRepository;
+import tn.esprit.spring.formationservice.repository.FormationRepository;
+import tn.esprit.spring.formationservice.repository.ReservationRepository;
+import tn.esprit.spring.formationservice.services.interfaces.ICategorieService;
+import tn.esprit.spring.formationservice.services.interfaces.IReservationService;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Mode "cache" : l'index des créneaux ne garde ni réservation supprimée, ni chargement antérieur à une invalidation
+// Contexte séparé : sa propre base, pour ne pas recréer le schéma sous les autres tests
+@SpringBootTest(properties = {
+        "reservation.schedule-cache.mode=cache",
+        "spring.datasource.url=jdbc:h2:mem:formation-cache;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+class ScheduleCacheInvalidationTests {
+
+    @Autowired
+    private IReservationService reservationService;
+    @Autowired
+    private ICategorieService categorieService;
+    @Autowired
+    private CategorieRepository categorieRepository;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private ParticipantScheduleCache scheduleCache;
+
+    private final LocalDateTime debut = LocalDateTime.of(2032, 2, 1, 9, 0);
+
+    @BeforeEach
+    void seed() {
+        reservationRepository.deleteAll();
+        formationRepository.deleteAll();
+        categorieRepository.deleteAll();
+        scheduleCache.clear();
+    }
+
+    @Test
+    void deletingACategorieFreesTheSlotsOfItsReservations() {
+        Categorie categorie = categorieRepository.save(Categorie.builder().nom("Cloud").build());
+        Formation supprimee = formationRepository.save(Formation.builder()
+                .titre("Docker").categorie(categorie).dateDebut(debut).dateFin(debut.plusHours(3)).build());
+        Formation autre = formationRepository.save(Formation.builder()
+                .titre("Kubernetes").dateDebut(debut).dateFin(debut.plusHours(3)).build());
+        reservationService.addReservation(reservation(7L, supprimee));
+
+        categorieService.deleteCategorie(categorie.getId());
+
+        assertThat(reservationService.addReservation(reservation(7L, autre)).getId()).isNotNull();
+    }
+
+    @Test
+    void loadRacingAClearIsNotKept() {
+        Formation formation = formationRepository.save(Formation.builder()
+                .titre("Docker").dateDebut(debut).dateFin(debut.plusHours(3)).build());
+        AtomicInteger loads = new AtomicInteger();
+        ParticipantScheduleCache[] cache = new ParticipantScheduleCache[1];
+
+        // L'invalidation arrive pendant la lecture en base
+        ReservationRepository racing = (ReservationRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ReservationRepository.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(reservationRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("findByParticipantIdAndStatutIn") && loads.incrementAndGet() == 1) {
+                        cache[0].clear();
+                    }
+                    return result;
+                });
+        cache[0] = new ParticipantScheduleCache(racing, "cache", 100);
+
+        assertThat(cache[0].findOverlap(7L, formation)).isNull();
+        assertThat(cache[0].findOverlap(7L, formation)).isNull();
+        assertThat(loads).hasValue(2);
+        assertThat(cache[0].findOverlap(7L, formation)).isNull();
+        assertThat(loads).hasValue(2);
+    }
+
+    private static Reservation reservation(Long participantId, Formation formation) {
+        return Reservation.builder()
+                .participantId(participantId)
+                .statut(StatutReservation.CONFIRME)
+                .formation(Formation.builder().id(formation.getId()).build())
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Coût du parsing JWT par requête authentifiée : ancien chemin du filtre (un parser construit puis une
+// vérification de signature pour chaque claim lu, quatre en tout) contre le parser partagé de JwtUtil.
+// Résultat en tokens parsés par seconde ; -prof gc (activé par défaut dans le profil) donne les octets alloués par parse.
+// Lancement : mvn -Pjmh compile exec:exec
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private Key key;
+    private String token;
+    private JwtParser sharedParser;
+
+    private JwtUtil jwtUtil;
+    private String jwtUtilToken;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(42L);
+        user.setEmail("bench@esprit.tn");
+        user.setRoleType(RoleType.ENSEIGNANT);
+
+        key = Keys.hmacShaKeyFor("cle-de-benchmark-hmac-sha256-d-au-moins-32-octets".getBytes());
+        token = Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim("id", user.getId())
+                .claim("role", user.getRoleType().name())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(key)
+                .compact();
+        sharedParser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        jwtUtil = new JwtUtil();
+        jwtUtilToken = jwtUtil.generateToken(user);
+    }
+
+    // extractEmail, extractUserId, puis isTokenValid (email + expiration) : quatre parsers, quatre vérifications
+    @Benchmark
+    public boolean previousFilterPath() {
+        String email = newParserClaims().getSubject();
+        Long userId = newParserClaims().get("id", Number.class).longValue();
+        boolean valid = newParserClaims().getSubject().equals(email)
+                && !newParserClaims().getExpiration().before(new Date());
+        return valid && userId != null;
+    }
+
+    // Une seule vérification, parser construit à chaque appel
+    @Benchmark
+    public Claims newParserPerCall() {
+        return newParserClaims();
+    }
+
+    // Une seule vérification avec un parser partagé
+    @Benchmark
+    public Claims sharedParserOnce() {
+        return sharedParser.parseClaimsJws(token).getBody();
+    }
+
+    // Chemin actuel du filtre
+    @Benchmark
+    public boolean jwtUtilParseOnce() {
+        TokenClaims claims = jwtUtil.parseToken(jwtUtilToken);
+        return claims.getUserId() != null && jwtUtil.isTokenValid(claims, user);
+    }
+
+    private Claims newParserClaims() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
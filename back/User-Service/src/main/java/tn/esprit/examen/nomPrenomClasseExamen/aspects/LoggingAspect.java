@@ -8,34 +8,20 @@ import org.springframework.stereotype.Component;
 @Component
 @Aspect
 public class LoggingAspect {
-//    @Pointcut("execution (* tn.esprit.examen.nomPrenomClasseExamen.services.ServicesImpl.compensateMiles(..))")
 
-    @AfterReturning("execution(* tn.esprit.examen.nomPrenomClasseExamen.services.ServicesImpl.compensateMiles(..))")
-  public void methodCall() {
-             log.info("PASSENGER COMPENSEé");
+    @Pointcut("execution(* tn.esprit.examen.nomPrenomClasseExamen.services..*.*(..))")
+    public void serviceCall() {
+    }
 
+    @Before("serviceCall()")
+    public void methodEntry(JoinPoint joinPoint) {
+        if (log.isTraceEnabled()) {
+            log.trace("In Method : {}", joinPoint.getSignature().toShortString());
+        }
+    }
 
+    @AfterThrowing(pointcut = "serviceCall()", throwing = "nameEx")
+    public void logMethodExitThrowing(JoinPoint joinPoint, Throwable nameEx) {
+        log.warn("AfterThrowing of method {} : {}", joinPoint.getSignature().toShortString(), nameEx.getMessage());
     }
-//
-//    @Before("methodCall()")
-//    public void methodEntry(JoinPoint joinPoint){
-//
-//        log.info("In Method : "+joinPoint.getSignature().getName());
-//    }
-//    @After("methodCall()")
-//    public void outOfMethod(JoinPoint joinPoint){
-//        log.info("Out of Method : "+joinPoint.getSignature().getName());
-//    }
-//    @AfterReturning("methodCall()")
-//    public void logMethodExitReturn(JoinPoint joinPoint) {
-//        String name = joinPoint.getSignature().getName();
-//        log.info("AfterReturning " + name + " avec succès ! ");
-//    }
-//
-//    @AfterThrowing(pointcut="methodCall()", throwing="nameEx")
-//    public void logMethodExitThrowing(JoinPoint joinPoint, Throwable nameEx) {
-//        String name = joinPoint.getSignature().getName();
-//        log.info("AfterThrowing of method " + name + " : ");
-//        log.error(nameEx.getMessage());
-//    }
 }
@@ -1,22 +1,81 @@
 package tn.esprit.examen.nomPrenomClasseExamen.aspects;
 
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.Repository;
 import org.springframework.stereotype.Component;
 
-@Slf4j
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Histogrammes de latence (p50/p95/p99 + max) par méthode de service et de repository,
+// consultables via /actuator/metrics/method.timed?tag=class:AuthService&tag=method:login
 @Component
 @Aspect
 public class PerformanceAspect {
-//    @Around("execution(* tn.esprit.examen.nomPrenomClasseExamen.services.*.*(..))")
-//    public Object profile(ProceedingJoinPoint pjp) throws Throwable {
-//        long start = System.currentTimeMillis();
-//        Object obj = pjp.proceed();
-//        long elapsedTime = System.currentTimeMillis() - start;
-//        log.info("Method execution time: " + elapsedTime + " milliseconds.");
-//        return obj;
-//    }
 
+    public static final String METRIC_NAME = "method.timed";
+
+    private final MeterRegistry registry;
+    // Un Timer par (classe, méthode) : la recherche dans le registre n'est faite qu'une fois
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+
+    @Value("${perf.aspect.enabled:true}")
+    private boolean enabled;
+
+    // Fraction des appels mesurés (1.0 = tous) : un appel sur dix par défaut, chaque mesure coûtant deux
+    // nanoTime et l'enregistrement dans l'histogramme sur des appels de repository parfois très courts
+    @Value("${perf.aspect.sample-rate:0.1}")
+    private double sampleRate;
+
+    public PerformanceAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* tn.esprit.examen.nomPrenomClasseExamen.services..*.*(..))"
+            + " || execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object profile(ProceedingJoinPoint pjp) throws Throwable {
+        if (!enabled || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return pjp.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return pjp.proceed();
+        } finally {
+            timerFor(pjp).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timerFor(ProceedingJoinPoint pjp) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        Class<?> type = pjp.getThis().getClass();
+        return timers.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> Timer.builder(METRIC_NAME)
+                        .description("Durée d'exécution des méthodes de service et de repository")
+                        .tag("class", ownerName(pjp))
+                        .tag("method", m.getName())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(registry));
+    }
+
+    // Pour un repository Spring Data, la cible est SimpleJpaRepository : on remonte à l'interface déclarée
+    private static String ownerName(ProceedingJoinPoint pjp) {
+        Object proxy = pjp.getThis();
+        if (proxy instanceof Repository<?, ?>) {
+            for (Class<?> itf : proxy.getClass().getInterfaces()) {
+                if (Repository.class.isAssignableFrom(itf) && !itf.getName().startsWith("org.springframework.")) {
+                    return itf.getSimpleName();
+                }
+            }
+        }
+        return pjp.getTarget().getClass().getSimpleName();
+    }
 }
@@ -0,0 +1,95 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+
+// Cache de second niveau Hibernate stocké dans Caffeine (une instance Caffeine par région).
+// Hibernate gère la stratégie (READ_WRITE, verrous souples) ; ici on ne fournit que le stockage.
+// Réglage : hibernate.cache.caffeine.spec (syntaxe CaffeineSpec), commun à toutes les régions.
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    public static final String SPEC = "hibernate.cache.caffeine.spec";
+    private static final String DEFAULT_SPEC = "maximumSize=10000,expireAfterWrite=10m";
+
+    private String spec = DEFAULT_SPEC;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        Object configured = configValues.get(SPEC);
+        if (configured != null && !configured.toString().isBlank()) {
+            spec = configured.toString();
+        }
+    }
+
+    @Override
+    protected void releaseFromUse() {
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(Caffeine.from(spec).build());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(Caffeine.from(spec).build());
+    }
+
+    // Les horodatages des tables ne doivent pas être évincés avant les résultats de requêtes qu'ils valident
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(Caffeine.newBuilder().build());
+    }
+
+    private static class CaffeineStorageAccess implements DomainDataStorageAccess {
+
+        private final Cache<Object, Object> cache;
+
+        private CaffeineStorageAccess(Cache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
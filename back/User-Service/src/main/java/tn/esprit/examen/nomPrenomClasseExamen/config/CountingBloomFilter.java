@@ -0,0 +1,101 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtre de Bloom à compteurs (4 bits, 16 par long, mis à jour par CAS) : supporte le retrait.
+// mightContain == false => absent à coup sûr ; true => présent ou faux positif (~falsePositiveRate).
+// Un compteur saturé (15) n'est plus jamais décrémenté : au pire un faux positif de plus.
+public class CountingBloomFilter {
+
+    private static final long MAX_COUNT = 15;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashes;
+
+    public CountingBloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max(1, (m + 15) / 16));
+        this.counters = (long) words.length() * 16;
+        this.hashes = Math.max(1, (int) Math.round((double) counters / n * Math.log(2)));
+    }
+
+    public void add(String key) {
+        long h1 = hash64(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            increment(Math.floorMod(h1 + i * h2, counters));
+        }
+    }
+
+    // N'appeler qu'avec une clé réellement ajoutée, sinon on crée des faux négatifs
+    public void remove(String key) {
+        long h1 = hash64(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            decrement(Math.floorMod(h1 + i * h2, counters));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = hash64(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long counter = Math.floorMod(h1 + i * h2, counters);
+            if (((words.get((int) (counter >>> 4)) >>> shift(counter)) & MAX_COUNT) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    private void increment(long counter) {
+        int word = (int) (counter >>> 4);
+        int shift = shift(counter);
+        while (true) {
+            long current = words.get(word);
+            if (((current >>> shift) & MAX_COUNT) == MAX_COUNT
+                    || words.compareAndSet(word, current, current + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(long counter) {
+        int word = (int) (counter >>> 4);
+        int shift = shift(counter);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if (count == 0 || count == MAX_COUNT
+                    || words.compareAndSet(word, current, current - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static int shift(long counter) {
+        return (int) (counter & 15) << 2;
+    }
+
+    // FNV-1a 64 bits sur les caractères, puis finaliseur de SplitMix64 pour bien répartir les bits
+    static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,57 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+// Efficacité du cache de second niveau, si user.cache.statistics.enabled=true (statistiques Hibernate), par exemple
+// /actuator/metrics/hibernate.cache.requests?tag=cache:natural-id&tag=result:miss
+@Component
+@RequiredArgsConstructor
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        request(registry, statistics, "entity", "hit", Statistics::getSecondLevelCacheHitCount);
+        request(registry, statistics, "entity", "miss", Statistics::getSecondLevelCacheMissCount);
+        request(registry, statistics, "natural-id", "hit", Statistics::getNaturalIdCacheHitCount);
+        request(registry, statistics, "natural-id", "miss", Statistics::getNaturalIdCacheMissCount);
+        put(registry, statistics, "entity", Statistics::getSecondLevelCachePutCount);
+        put(registry, statistics, "natural-id", Statistics::getNaturalIdCachePutCount);
+        // Résolutions email -> id parties en base (absence du cache ou email dans une autre casse)
+        FunctionCounter.builder("hibernate.natural-id.queries", statistics,
+                        Statistics::getNaturalIdQueryExecutionCount)
+                .description("Requêtes SQL exécutées pour résoudre un identifiant naturel")
+                .register(registry);
+    }
+
+    private static void request(MeterRegistry registry, Statistics statistics, String cache, String result,
+                                ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder("hibernate.cache.requests", statistics, count)
+                .description("Lectures du cache de second niveau")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void put(MeterRegistry registry, Statistics statistics, String cache,
+                            ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder("hibernate.cache.puts", statistics, count)
+                .description("Écritures dans le cache de second niveau")
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
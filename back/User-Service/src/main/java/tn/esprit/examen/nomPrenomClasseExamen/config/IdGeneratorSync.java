@@ -0,0 +1,44 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Ids réservés par blocs de 50 dans id_generator (permet le batch JDBC, impossible avec IDENTITY).
+// Au démarrage chaque compteur est placé après le max(id) des lignes créées en AUTO_INCREMENT.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdGeneratorSync {
+
+    // gen_name -> table
+    private static final Map<String, String> GENERATORS = Map.of(
+            "user", "user",
+            "user_verification", "user_verification",
+            "user_event_outbox", "user_event_outbox");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void sync() {
+        GENERATORS.forEach((name, table) -> {
+            long next = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from " + table, Long.class);
+            List<Long> current = jdbcTemplate.queryForList(
+                    "select gen_value from id_generator where gen_name = ?", Long.class, name);
+            if (current.isEmpty()) {
+                jdbcTemplate.update("insert into id_generator (gen_name, gen_value) values (?, ?)", name, next);
+            } else if (current.get(0) < next) {
+                jdbcTemplate.update("update id_generator set gen_value = ? where gen_name = ? and gen_value < ?",
+                        next, name, next);
+                log.info("Id generator '{}' moved from {} to {}", name, current.get(0), next);
+            }
+        });
+    }
+}
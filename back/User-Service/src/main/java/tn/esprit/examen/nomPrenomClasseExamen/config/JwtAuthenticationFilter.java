@@ -5,18 +5,25 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
 import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.AuthService;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -24,6 +31,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     @Lazy
     private final AuthService authService;
+    private final TokenCache tokenCache;
+    private final TokenRevocationList revocationList;
+
+    // Mode "claims-only" : le principal est construit à partir du jeton, sans requête SQL
+    @Value("${jwt.auth.claims-only:false}")
+    private boolean claimsOnly;
 
 
     @Override
@@ -39,32 +52,69 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = authHeader.substring(7);
-        System.out.println("Received token: " + token); // Log pour vérifier le token
+
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Jeton déjà vérifié : ni parsing, ni requête SQL
+        TokenCache.Entry cached = tokenCache.get(token);
+        if (cached != null) {
+            authenticate(request, cached.getUser());
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         try {
-            Long userId = jwtUtil.extractUserId(token);
-            System.out.println("Extracted userId from token: " + userId); // Log pour vérifier l'ID extrait
+            TokenClaims claims = jwtUtil.parseToken(token);
+            Long userId = claims.getUserId();
+            log.debug("Extracted userId from token: {}", userId);
 
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                User user = authService.loadUserById(userId); // 👈 utiliser loadUserById ici
+            // Jeton émis avant une révocation (mot de passe, rôle, suppression) : refusé dans les deux modes
+            if (userId != null && !revocationList.isRevoked(userId, claims.getIssuedAt())) {
+                long generation = tokenCache.generation(userId);
+                User user = claimsOnly ? userFromClaims(claims) : authService.loadUserById(userId); // 👈 utiliser loadUserById ici
                 if (user == null) {
-                    System.out.println("User not found for ID: " + userId); // Log si l'utilisateur n'est pas trouvé
+                    log.debug("User not found for ID: {}", userId);
                 }
-                if (user != null && jwtUtil.isTokenValid(token, user)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            user, null, Collections.emptyList());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("Authentication set for user ID: " + userId);
+                if (user != null && jwtUtil.isTokenValid(claims, user)) {
+                    authenticate(request, user);
+                    tokenCache.put(token, user, claims.getExpiration().getTime(), generation);
+                    log.debug("Authentication set for user ID: {}", userId);
                 } else {
-                    System.out.println("Invalid token or user mismatch");
+                    log.debug("Invalid token or user mismatch");
                 }
             }
         } catch (Exception e) {
-            System.out.println("Exception in JWT filter: " + e.getMessage());
+            log.debug("Exception in JWT filter: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private User userFromClaims(TokenClaims claims) {
+        User user = new User();
+        user.setId(claims.getUserId());
+        user.setEmail(claims.getEmail());
+        if (claims.getRole() != null) {
+            try {
+                user.setRoleType(RoleType.valueOf(claims.getRole()));
+            } catch (IllegalArgumentException e) {
+                log.debug("Unknown role in token: {}", claims.getRole());
+            }
+        }
+        return user;
+    }
+
+    private void authenticate(HttpServletRequest request, User user) {
+        List<GrantedAuthority> authorities = user.getRoleType() == null
+                ? Collections.emptyList()
+                : List.of(new SimpleGrantedAuthority("ROLE_" + user.getRoleType().name()));
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                user, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
 }
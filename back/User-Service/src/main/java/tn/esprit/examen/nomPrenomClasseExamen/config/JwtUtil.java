@@ -1,8 +1,10 @@
 package tn.esprit.examen.nomPrenomClasseExamen.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
@@ -10,22 +12,24 @@ import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
 import java.security.Key;
 import java.util.Date;
 
+@Slf4j
 @Component
 public class JwtUtil {
 
     private final long expirationMs = 86400000; // 1 jour
     private final String SECRET_KEY = "ton-secret-base64-encode-ou-une-longue-phrase-de-256-bits";
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    // Le parser est immuable et thread-safe : on le construit une seule fois
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
     public String generateToken(User user) {
         // Si le role est null, on le définit comme PLAYER
         if (user.getRoleType() == null) {
             user.setRoleType(RoleType.ENSEIGNANT);
-            user.setRoleType(RoleType.ENSEIGNANT);
         }
 
         // Génération du token avec le roleType
-        String token = Jwts.builder()
+        return Jwts.builder()
                 .setSubject(user.getEmail())
                 .claim("id", user.getId()) // Ajouter l'ID utilisateur ici
                 .claim("role", user.getRoleType().name()) // Ajouter le role dans le JWT
@@ -33,47 +37,51 @@ public class JwtUtil {
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
                 .signWith(key)
                 .compact();
-
-        System.out.println("Generated token: " + token); // Log pour vérifier le jeton généré
-        return token;
     }
 
+    // Parse et vérifie le jeton une seule fois
+    public TokenClaims parseToken(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Number id = claims.get("id", Number.class);
+        return new TokenClaims(
+                id != null ? id.longValue() : null,
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration());
+    }
 
     public Long extractUserId(String token) {
         try {
-            Claims claims = getClaims(token);
-            return claims.get("id", Integer.class).longValue(); // ou Long.class si tu veux directement un Long
+            return parseToken(token).getUserId();
         } catch (Exception e) {
-            System.out.println("Error extracting userId from token: " + e.getMessage());
+            log.debug("Error extracting userId from token: {}", e.getMessage());
             throw e;
         }
     }
 
     public String extractEmail(String token) {
         try {
-            Claims claims = getClaims(token);
-            String email = claims.getSubject();
-            System.out.println("Extracted email from token: " + email); // Log pour vérifier l'email extrait
-            return email;
+            return parseToken(token).getEmail();
         } catch (Exception e) {
-            System.out.println("Error extracting email from token: " + e.getMessage()); // Log d'erreur
+            log.debug("Error extracting email from token: {}", e.getMessage());
             throw e;
         }
     }
 
+    public Date extractExpiration(String token) {
+        return parseToken(token).getExpiration();
+    }
+
     public boolean isTokenValid(String token, User user) {
-        final String email = extractEmail(token);
-        boolean isValid = email.equals(user.getEmail()) && !isTokenExpired(token);
-        System.out.println("Token valid: " + isValid); // Log pour vérifier la validité du jeton
-        return isValid;
+        return isTokenValid(parseToken(token), user);
     }
 
-    private boolean isTokenExpired(String token) {
-        return getClaims(token).getExpiration().before(new Date());
+    public long getExpirationMs() {
+        return expirationMs;
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody();
+    public boolean isTokenValid(TokenClaims claims, User user) {
+        return claims.getEmail() != null && claims.getEmail().equals(user.getEmail()) && !claims.isExpired();
     }
 }
@@ -0,0 +1,44 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Properties;
+
+// Partitions d'un topic, pour les listeners en assignation manuelle (@TopicPartition) :
+// chaque instance lit toutes les partitions sans rejoindre de groupe de consommateurs
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KafkaPartitionFinder {
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+
+    @Value("${user.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    public String[] partitions(String topic) {
+        if (!enabled) {
+            return new String[]{"0"}; // listener non démarré : pas d'appel au broker
+        }
+        Properties overrides = new Properties();
+        // Broker injoignable : on ne bloque pas le démarrage pendant default.api.timeout.ms (60 s)
+        overrides.setProperty(ConsumerConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, "5000");
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer(null, null, "-partitions", overrides)) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos != null && !infos.isEmpty()) {
+                return infos.stream().map(info -> String.valueOf(info.partition())).toArray(String[]::new);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Partitions du topic {} inconnues ({}), lecture de la partition 0 seulement", topic, e.getMessage());
+        }
+        return new String[]{"0"};
+    }
+}
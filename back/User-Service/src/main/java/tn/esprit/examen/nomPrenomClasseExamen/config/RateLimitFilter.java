@@ -0,0 +1,164 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Limitation des endpoints d'authentification (login, OTP) par adresse client et par email,
+// avant tout calcul BCrypt, envoi SMTP ou vérification d'OTP. Dépassement => 429 + Retry-After.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // chemin -> limiteurs de la politique
+    private final Map<String, Limiters> limitersByPath = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        properties.getPolicies().forEach((name, policy) -> {
+            TokenBucketLimiter client = policy.getClientCapacity() > 0
+                    ? new TokenBucketLimiter(policy.getClientCapacity(), policy.getClientPeriod(), properties.getMaxKeys())
+                    : null;
+            TokenBucketLimiter email = policy.getEmailCapacity() > 0
+                    ? new TokenBucketLimiter(policy.getEmailCapacity(), policy.getEmailPeriod(), properties.getMaxKeys())
+                    : null;
+            limitersByPath.put(policy.getPath(), new Limiters(name, client, email));
+            if (client != null) {
+                Gauge.builder("rate-limit.keys", client, TokenBucketLimiter::size)
+                        .tags("policy", name, "key", "client").register(meterRegistry);
+            }
+            if (email != null) {
+                Gauge.builder("rate-limit.keys", email, TokenBucketLimiter::size)
+                        .tags("policy", name, "key", "email").register(meterRegistry);
+            }
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !limitersByPath.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Limiters limiters = limitersByPath.get(request.getServletPath());
+        long now = System.nanoTime();
+
+        // Derrière un proxy, activer server.forward-headers-strategy pour obtenir l'adresse réelle
+        if (limiters.client != null) {
+            long wait = limiters.client.tryAcquire(request.getRemoteAddr(), now);
+            if (wait > 0) {
+                reject(response, limiters.name, "client", wait);
+                return;
+            }
+        }
+
+        HttpServletRequest forwarded = request;
+        if (limiters.email != null) {
+            String email;
+            if (isJson(request)) {
+                if (request.getContentLengthLong() < 0 || request.getContentLengthLong() > properties.getMaxBodyBytes()) {
+                    email = null;
+                } else {
+                    CachedBodyRequest cached = new CachedBodyRequest(request);
+                    forwarded = cached;
+                    email = emailFromJson(cached.getBody());
+                }
+            } else {
+                email = request.getParameter("email");
+            }
+            if (email != null && !email.isBlank()) {
+                long wait = limiters.email.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now);
+                if (wait > 0) {
+                    reject(response, limiters.name, "email", wait);
+                    return;
+                }
+            }
+        }
+
+        filterChain.doFilter(forwarded, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.purge-interval-ms:60000}")
+    public void purgeIdle() {
+        long now = System.nanoTime();
+        limitersByPath.values().forEach(limiters -> {
+            if (limiters.client != null) {
+                limiters.client.purgeIdle(now);
+            }
+            if (limiters.email != null) {
+                limiters.email.purgeIdle(now);
+            }
+        });
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private String emailFromJson(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText() : null;
+        } catch (IOException e) {
+            return null; // corps invalide : le contrôleur répondra 400
+        }
+    }
+
+    private void reject(HttpServletResponse response, String policy, String key, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        meterRegistry.counter("rate-limit.rejected", "policy", policy, "key", key).increment();
+        log.debug("Rate limit '{}' dépassée ({}), retry after {} s", policy, key, retryAfter);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        body.put("message", "Trop de tentatives, réessayez dans " + retryAfter + " s");
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static class Limiters {
+        private final String name;
+        private final TokenBucketLimiter client;
+        private final TokenBucketLimiter email;
+
+        private Limiters(String name, TokenBucketLimiter client, TokenBucketLimiter email) {
+            this.name = name;
+            this.client = client;
+            this.email = email;
+        }
+    }
+}
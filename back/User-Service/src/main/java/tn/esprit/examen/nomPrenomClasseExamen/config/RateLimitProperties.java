@@ -0,0 +1,34 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// rate-limit.policies.<nom>.* : une politique par endpoint (chemin sans le context-path).
+// Capacité = rafale autorisée, rechargée entièrement sur la période ; 0 désactive la dimension.
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxKeys = 100_000; // par politique et par dimension
+    private int maxBodyBytes = 16_384; // au-delà, pas de lecture du corps JSON (limite par client seulement)
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private String path;
+        private int clientCapacity;
+        private Duration clientPeriod = Duration.ofMinutes(1);
+        private int emailCapacity;
+        private Duration emailPeriod = Duration.ofMinutes(1);
+    }
+}
@@ -1,5 +1,7 @@
 package tn.esprit.examen.nomPrenomClasseExamen.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -12,15 +14,21 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 
+import java.util.Arrays;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(@Lazy JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(@Lazy JwtAuthenticationFilter jwtAuthenticationFilter, RateLimitFilter rateLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -30,10 +38,15 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**").permitAll()
+                        // Annuaire et export (emails, noms, rôles de tous les comptes) : écrans d'administration
+                        .requestMatchers("/user/directory", "/user/directory/**").hasRole(RoleType.ADMIN.name())
                         .requestMatchers("/user/**").permitAll()
                         .requestMatchers("/friendRequests/**").permitAll()
                         .requestMatchers("/pic/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()
+                        // Sonde de santé publique ; métriques et autres endpoints réservés aux administrateurs
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole(RoleType.ADMIN.name())
                         .requestMatchers(
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
@@ -42,13 +55,45 @@ public class SecurityConfig {
 
                         .anyRequest().authenticated()
                 )
+                // Même position : l'ordre d'ajout est conservé, la limitation passe avant le JWT
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
+    // Coût fixe par défaut ; password.bcrypt.strength=0 : choisi au démarrage pour qu'une vérification prenne ~target-ms
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength:12}") int strength,
+                                           @Value("${password.bcrypt.target-ms:250}") long targetMs,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:14}") int maxStrength) {
+        if (strength <= 0) {
+            strength = calibrateStrength(targetMs, minStrength, maxStrength);
+        }
+        log.info("BCrypt strength: {}", strength);
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // Mesure (médiane de 3) au coût minimal puis extrapolation : chaque +1 double le temps de calcul
+    static int calibrateStrength(long targetMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        String hash = probe.encode("calibration");
+        long[] samples = new long[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            probe.matches("calibration", hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double elapsedMs = Math.max(samples[1] / 1_000_000.0, 0.01);
+        int strength = minStrength;
+        while (strength < maxStrength && elapsedMs * 2 <= targetMs) {
+            elapsedMs *= 2;
+            strength++;
+        }
+        log.info("BCrypt calibrated: {} ms per verification at strength {} (target {} ms)",
+                Math.round(elapsedMs), strength, targetMs);
+        return strength;
     }
 
     @Bean
@@ -0,0 +1,74 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket sans verrou, sous forme GCRA : un seul long par clé (instant théorique où le seau sera plein),
+// mis à jour par CAS. Un seau plein équivaut à une clé absente : les entrées inactives sont purgées.
+public class TokenBucketLimiter {
+
+    private final long intervalNanos; // temps de recharge d'un jeton
+    private final long burstNanos; // capacité exprimée en temps
+    private final int maxKeys;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(int capacity, Duration period, int maxKeys) {
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.maxKeys = maxKeys;
+    }
+
+    // 0 si un jeton est pris, sinon l'attente (en nanosecondes) avant le prochain jeton
+    public long tryAcquire(String key, long now) {
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (buckets.size() >= maxKeys) {
+                purgeIdle(now);
+                if (buckets.size() >= maxKeys) {
+                    evictNearestFull();
+                }
+            }
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Une course avec tryAcquire peut au pire offrir un jeton de plus à la clé purgée
+    public void purgeIdle(long now) {
+        buckets.values().removeIf(tat -> tat.get() <= now);
+    }
+
+    // Table pleine de clés actives (ex. rafale d'adresses différentes) : laisser passer la nouvelle clé
+    // ouvrirait une porte sans limite. On retire le seau le plus proche d'être plein : la clé évincée ne
+    // regagne que les quelques jetons qui lui manquaient.
+    private void evictNearestFull() {
+        Map.Entry<String, AtomicLong> nearest = null;
+        long nearestTat = Long.MAX_VALUE;
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            long tat = entry.getValue().get();
+            if (tat < nearestTat) {
+                nearest = entry;
+                nearestTat = tat;
+            }
+        }
+        if (nearest != null) {
+            buckets.remove(nearest.getKey(), nearest.getValue());
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
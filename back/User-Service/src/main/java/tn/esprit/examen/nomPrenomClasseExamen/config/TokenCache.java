@@ -0,0 +1,110 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Cache des jetons déjà vérifiés : évite de re-parser le JWT et de recharger l'utilisateur à chaque requête
+@Component
+public class TokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Génération par utilisateur (tableau borné, indexé par hash : une collision ne fait que sauter une mise en cache),
+    // incrémentée à chaque éviction pour écarter un principal chargé avant celle-ci
+    private final AtomicLongArray generations = new AtomicLongArray(1024);
+
+    @Value("${jwt.token-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.token-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public Entry get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.getExpiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    // À lire avant de charger l'utilisateur, puis à passer à put
+    public long generation(Long userId) {
+        return generations.get(slot(userId));
+    }
+
+    public void put(String token, User user, long tokenExpiresAt, long generation) {
+        int slot = slot(user.getId());
+        if (generations.get(slot) != generation) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            purgeExpired();
+            if (entries.size() >= maxSize) {
+                return; // cache plein : on reste sur le chemin normal plutôt que de grossir sans limite
+            }
+        }
+        // L'entrée expire à l'expiration du jeton, plafonnée par le TTL pour rafraîchir le principal
+        long expiresAt = Math.min(tokenExpiresAt, System.currentTimeMillis() + ttlSeconds * 1000);
+        String key = digest(token);
+        Entry entry = new Entry(user.getId(), user, expiresAt);
+        entries.put(key, entry);
+        // Éviction passée entre le contrôle et l'insertion : elle n'a pas vu cette entrée
+        if (generations.get(slot) != generation) {
+            entries.remove(key, entry);
+        }
+    }
+
+    // Appelé quand l'utilisateur est modifié ou supprimé
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generations.incrementAndGet(slot(userId));
+        entries.values().removeIf(entry -> userId.equals(entry.getUserId()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.getExpiresAt() <= now);
+    }
+
+    private int slot(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), generations.length());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Long userId;
+        private final User user;
+        private final long expiresAt;
+    }
+}
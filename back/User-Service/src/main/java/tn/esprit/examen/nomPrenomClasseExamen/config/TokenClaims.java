@@ -0,0 +1,21 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+// Vue immuable des claims d'un JWT déjà vérifié
+@Getter
+@AllArgsConstructor
+public final class TokenClaims {
+    private final Long userId;
+    private final String email;
+    private final String role;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,50 @@
+package tn.esprit.examen.nomPrenomClasseExamen.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Liste de révocation : userId -> jetons émis avant cet instant refusés
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+
+    private final Map<Long, Long> issuedBefore = new ConcurrentHashMap<>();
+    private final TokenCache tokenCache;
+    private final JwtUtil jwtUtil;
+
+    // Renvoie la limite retenue, à transmettre aux autres instances
+    public long revoke(Long userId) {
+        // "iat" est à la seconde près : on tronque pour ne pas refuser un jeton émis juste après
+        long now = System.currentTimeMillis();
+        long limit = now - now % 1000;
+        revoke(userId, limit);
+        return limit;
+    }
+
+    // Limite fixée par l'instance d'origine : avec l'horloge locale, les jetons émis après la révocation
+    // (nouveau mot de passe) seraient refusés ici
+    public void revoke(Long userId, long limit) {
+        if (userId == null) {
+            return;
+        }
+        issuedBefore.merge(userId, limit, Math::max);
+        tokenCache.evictUser(userId);
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long limit = issuedBefore.get(userId);
+        return limit != null && (issuedAt == null || issuedAt.getTime() < limit);
+    }
+
+    // Au-delà de la durée de vie d'un jeton, plus aucun jeton concerné n'est encore valide
+    @Scheduled(fixedDelayString = "${jwt.token-cache.purge-interval-ms:60000}")
+    public void purge() {
+        long oldest = System.currentTimeMillis() - jwtUtil.getExpirationMs();
+        issuedBefore.values().removeIf(limit -> limit < oldest);
+    }
+}
@@ -2,6 +2,7 @@ package tn.esprit.examen.nomPrenomClasseExamen.controllers.UsersModule;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,9 +10,13 @@ import tn.esprit.examen.nomPrenomClasseExamen.config.JwtUtil;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.AuthRequest;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.AuthResponse;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventType;
 import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUserRepository;
 import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.AuthService;
-import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.ProducerService;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.DuplicateUserException;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.PasswordHashingBusyException;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.UserEventPublisher;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.UserUniquenessService;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,20 +29,28 @@ public class AuthController {
     private final AuthService authService;
     private final JwtUtil jwtUtil;
     private final IUserRepository userRepository;
+    private final UserUniquenessService userUniquenessService;
     @Autowired
-    private ProducerService producerService;
+    private UserEventPublisher userEventPublisher;
 
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody User user) {
-        if (!checkEmailUnique(user.getEmail())) {
-            return ResponseEntity.badRequest().body(new AuthResponse("L'email est déjà utilisé."));
+        // Refus rapide des doublons évidents (souvent sans SQL) avant le hachage BCrypt ;
+        // en cas de course, c'est la contrainte unique qui tranche
+        if (!userUniquenessService.isEmailAvailable(user.getEmail())) {
+            return ResponseEntity.badRequest().body(new AuthResponse(UserUniquenessService.EMAIL_TAKEN));
         }
-        if (!checkPhoneUnique(user.getPhoneNumber())) {
-            return ResponseEntity.badRequest().body(new AuthResponse("Le numéro de téléphone est déjà utilisé."));
+        if (!userUniquenessService.isPhoneAvailable(user.getPhoneNumber())) {
+            return ResponseEntity.badRequest().body(new AuthResponse(UserUniquenessService.PHONE_TAKEN));
         }
 
-        User savedUser = authService.register(user);
+        User savedUser;
+        try {
+            savedUser = authService.register(user);
+        } catch (DuplicateUserException e) {
+            return ResponseEntity.badRequest().body(new AuthResponse(e.getMessage()));
+        }
 
 
         String token = jwtUtil.generateToken(savedUser);
@@ -46,9 +59,10 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest request) {
-        User user = authService.loadUserByEmail(request.getEmail());
-        if (authService.checkPassword(request.getPassword(), user.getPassword())) {
+        User user = authService.authenticate(request.getEmail(), request.getPassword());
+        if (user != null) {
             String token = jwtUtil.generateToken(user);
+            userEventPublisher.recordTransient(UserEventType.LOGIN, user);
             return ResponseEntity.ok(new AuthResponse(token));
         }
         return ResponseEntity.status(401).body("Invalid credentials");
@@ -90,19 +104,31 @@ public class AuthController {
         try {
             authService.resetPassword(email, otp, newPassword);
             return ResponseEntity.ok("Mot de passe réinitialisé !");
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur : " + e.getMessage());
         }
     }
 
+    // Pool BCrypt saturé : réponse rapide, le client réessaie
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<AuthResponse> hashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new AuthResponse(e.getMessage()));
+    }
+
+    // Indication pour le formulaire : false est exact, true peut être démenti à l'inscription (400)
+    // pendant quelques minutes si le compte vient d'être créé via une autre instance
     @GetMapping("/check-email/{email}")
     public boolean checkEmailUnique(@PathVariable String email) {
-        return userRepository.findByEmail(email) == null;
+        return userUniquenessService.isEmailAvailable(email);
     }
 
     @GetMapping("/check-phone/{phoneNumber}")
     public boolean checkPhoneUnique(@PathVariable String phoneNumber) {
-        return userRepository.findByPhoneNumber(phoneNumber) == null;
+        return userUniquenessService.isPhoneAvailable(phoneNumber);
     }
 
     /*FACEBOOOOOK
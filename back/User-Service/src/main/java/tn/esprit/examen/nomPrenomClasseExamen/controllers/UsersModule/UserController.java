@@ -1,13 +1,19 @@
 package tn.esprit.examen.nomPrenomClasseExamen.controllers.UsersModule;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
-import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUserRepository;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserDirectoryPage;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.DuplicateUserException;
 import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.IUserService;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.UserUniquenessService;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,11 +27,37 @@ public class UserController {
     private IUserService userService;
 
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Conservé pour le front actuel ; les écrans d'administration passent par /directory
     @GetMapping("/allUser")
     public List<User> getAllUsers() {
         return userService.retrieveAllUser();
     }
 
+    // Annuaire paginé par curseur : id, noms, email et rôle seulement
+    @GetMapping("/directory")
+    public UserDirectoryPage getDirectory(@RequestParam(required = false) RoleType role,
+                                          @RequestParam(required = false) String name,
+                                          @RequestParam(required = false) String email,
+                                          @RequestParam(required = false) Long afterId,
+                                          @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return userService.getUserDirectory(role, name, email, afterId, pageSize);
+    }
+
+    // Export NDJSON (une ligne JSON par utilisateur), mêmes filtres que /directory
+    @GetMapping("/directory/export")
+    public ResponseEntity<StreamingResponseBody> exportDirectory(@RequestParam(required = false) RoleType role,
+                                                                 @RequestParam(required = false) String name,
+                                                                 @RequestParam(required = false) String email) {
+        StreamingResponseBody body = out -> userService.exportUserDirectory(role, name, email, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+
     @PostMapping("/addUser")
     public User addUser(@RequestBody User user) {
         System.out.println("User received: " + user.toString());
@@ -64,11 +96,19 @@ public class UserController {
     }
 
     @Autowired
-    private IUserRepository userRepository;
+    private UserUniquenessService userUniquenessService;
 
 
+    // Indication pour le formulaire : false est exact, true peut être démenti à l'inscription (400)
+    // pendant quelques minutes si le compte vient d'être créé via une autre instance
     @GetMapping("/check-email/{email}")
     public boolean checkEmailUnique(@PathVariable String email) {
-        return userRepository.findByEmail(email) == null;
+        return userUniquenessService.isEmailAvailable(email);
+    }
+
+    // Email ou téléphone déjà pris par un autre compte
+    @ExceptionHandler(DuplicateUserException.class)
+    public ResponseEntity<String> duplicateUser(DuplicateUserException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
     }
 }
\ No newline at end of file
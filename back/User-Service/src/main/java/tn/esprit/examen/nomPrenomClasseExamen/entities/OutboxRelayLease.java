@@ -0,0 +1,34 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+// Bail du relais de l'outbox : une seule instance relaie à la fois, l'ordre d'écriture par clé est conservé.
+// Renouvelé à chaque lot par son détenteur, repris par une autre instance une fois expiré.
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class OutboxRelayLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date expiresAt;
+}
@@ -7,7 +7,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
@@ -21,13 +25,27 @@ import java.util.Set;
 @Getter
 @Setter
 @Inheritance(strategy = InheritanceType.JOINED)
+// Cache de second niveau (région "user") : findById et la recherche par email par l'identifiant naturel
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-email")
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_user_phone_number", columnNames = "phone_number")},
+        indexes = {
+                @Index(name = "idx_user_role_type_id", columnList = "role_type, id"),
+                @Index(name = "idx_user_last_name", columnList = "last_name"),
+                @Index(name = "idx_user_first_name", columnList = "first_name")})
 public class User implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "user", allocationSize = 50)
     private Long id;
 
     private String firstName;
     private String lastName;
+    // Modifiable via updateUser ; l'unicité reste portée par uk_user_email
+    @NaturalId(mutable = true)
     private String email;
     private String password;
     private String phoneNumber;
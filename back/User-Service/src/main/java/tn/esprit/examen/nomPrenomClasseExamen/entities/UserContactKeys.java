@@ -0,0 +1,10 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+// Projection légère pour recharger le filtre d'unicité (pas de ligne User complète)
+public interface UserContactKeys {
+    Long getId();
+
+    String getEmail();
+
+    String getPhoneNumber();
+}
@@ -0,0 +1,17 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Page de l'annuaire paginée par curseur (id) : passer nextAfterId pour la page suivante
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserDirectoryPage {
+    private List<UserSummary> items;
+    private boolean hasNext;
+    private Long nextAfterId;
+}
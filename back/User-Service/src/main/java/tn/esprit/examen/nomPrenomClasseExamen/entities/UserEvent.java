@@ -0,0 +1,31 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+// Événement publié sur le topic user-events (clé = userId, pour garder l'ordre par utilisateur).
+// Jamais de mot de passe ni de données sensibles ; les champs nuls ne sont pas sérialisés.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class UserEvent {
+
+    private String id; // identifiant unique : les consommateurs dédoublonnent (livraison at-least-once)
+    private UserEventType type;
+    private Long userId;
+    private String email;
+    private RoleType role;
+    private long at; // epoch millis
+
+    public static UserEvent of(UserEventType type, User user) {
+        return new UserEvent(UUID.randomUUID().toString(), type, user.getId(), user.getEmail(),
+                user.getRoleType(), System.currentTimeMillis());
+    }
+}
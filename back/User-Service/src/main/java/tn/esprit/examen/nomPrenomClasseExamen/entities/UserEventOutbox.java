@@ -0,0 +1,42 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+// Outbox transactionnelle : l'événement est écrit dans la même transaction que l'utilisateur,
+// puis relayé vers Kafka en arrière-plan (la requête ne dépend pas de la disponibilité du broker)
+@Entity
+@Table(indexes = @Index(name = "idx_user_event_outbox_created_at", columnList = "created_at, id"))
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class UserEventOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_event_outbox_id")
+    @TableGenerator(name = "user_event_outbox_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "user_event_outbox", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private UserEventType eventType;
+
+    @Column(name = "message_key", length = 64)
+    private String messageKey;
+
+    @Column(nullable = false, length = 1000)
+    private String payload;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date createdAt;
+
+    private int attempts;
+}
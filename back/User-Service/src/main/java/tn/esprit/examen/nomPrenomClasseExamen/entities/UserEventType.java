@@ -0,0 +1,8 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+public enum UserEventType {
+    REGISTERED,
+    UPDATED,
+    PASSWORD_RESET,
+    LOGIN
+}
@@ -0,0 +1,14 @@
+package tn.esprit.examen.nomPrenomClasseExamen.entities;
+
+// Ligne de l'annuaire : ni mot de passe ni données personnelles au-delà du nécessaire
+public interface UserSummary {
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    RoleType getRoleType();
+}
@@ -6,8 +6,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.Date;
+
 
 @Entity
+// Un seul code en cours par email : deux demandes simultanées ne peuvent pas créer deux lignes
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_user_verification_email", columnNames = "email"))
 @AllArgsConstructor
 @NoArgsConstructor
 @Setter
@@ -15,7 +19,9 @@ import lombok.Setter;
 public class UserVerification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_verification_id")
+    @TableGenerator(name = "user_verification_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "user_verification", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,5 +30,12 @@ public class UserVerification {
     @Column(nullable = false)
     private String verificationCode;
 
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = true)
+    private Date expiresAt;
+
+    @Column(nullable = true)
+    private Integer attempts;
+
 
 }
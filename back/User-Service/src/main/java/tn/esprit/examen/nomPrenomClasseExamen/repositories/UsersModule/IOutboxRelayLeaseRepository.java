@@ -0,0 +1,21 @@
+package tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.OutboxRelayLease;
+
+import java.util.Date;
+
+public interface IOutboxRelayLeaseRepository extends JpaRepository<OutboxRelayLease, String> {
+
+    // 1 si le bail est pris ou prolongé, 0 s'il est détenu par une autre instance (ou n'existe pas encore)
+    @Modifying
+    @Transactional
+    @Query("update OutboxRelayLease l set l.owner = :owner, l.expiresAt = :until "
+            + "where l.name = :name and (l.owner = :owner or l.expiresAt < :now)")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") Date now, @Param("until") Date until);
+}
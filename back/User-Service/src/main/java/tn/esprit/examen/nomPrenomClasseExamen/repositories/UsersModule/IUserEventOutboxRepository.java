@@ -0,0 +1,25 @@
+package tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventOutbox;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IUserEventOutboxRepository extends JpaRepository<UserEventOutbox, Long> {
+
+    // Plus anciens d'abord : l'ordre d'écriture est conservé à l'envoi. Pas l'id, alloué par blocs de 50
+    // par instance : une instance peut écrire l'id 120 avant qu'une autre n'écrive l'id 60
+    @Query("select o from UserEventOutbox o order by o.createdAt, o.id")
+    List<UserEventOutbox> findBatch(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("update UserEventOutbox o set o.attempts = o.attempts + 1 where o.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+}
@@ -1,19 +1,87 @@
 package tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserContactKeys;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserSummary;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface IUserRepository  extends JpaRepository<User,Long> {
+public interface IUserRepository  extends JpaRepository<User,Long>, UserEmailLookup {
     //ProfilePictures findByUserId(Long id);
-    User findByEmail(String email);
 
+    User findByPhoneNumber(String phoneNumber);
 
+    // Index uniques : simple sonde d'index, sans charger la ligne
+    boolean existsByEmail(String email);
 
-    User findByPhoneNumber(String phoneNumber);
+    boolean existsByPhoneNumber(String phoneNumber);
+
+    @Query("select u.id as id, u.email as email, u.phoneNumber as phoneNumber from User u "
+            + "where u.id > :afterId order by u.id")
+    List<UserContactKeys> findContactKeys(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    // Annuaire par curseur sur id, une requête par filtre principal pour que MySQL parte du bon index.
+    // Les préfixes arrivent déjà échappés (caractère '!') et suffixés par '%'.
+    // Sans filtre : parcours de la clé primaire à partir du curseur
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, "
+            + "u.roleType as roleType from User u "
+            + "where u.id > :afterId order by u.id")
+    List<UserSummary> findDirectoryPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Rôle seul : index (role_type, id), déjà dans l'ordre du curseur
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, "
+            + "u.roleType as roleType from User u "
+            + "where u.roleType = :role and u.id > :afterId order by u.id")
+    List<UserSummary> findDirectoryPageByRole(@Param("role") RoleType role,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    // Préfixe d'email : plage sur uk_user_email ; rôle et nom ne filtrent que les lignes de cette plage
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, "
+            + "u.roleType as roleType from User u "
+            + "where u.email like :email escape '!' and u.id > :afterId "
+            + "and (:role is null or u.roleType = :role) "
+            + "and (:name is null or u.lastName like :name escape '!' or u.firstName like :name escape '!') "
+            + "order by u.id")
+    List<UserSummary> findDirectoryPageByEmailPrefix(@Param("email") String emailPrefix,
+                                                     @Param("role") RoleType role,
+                                                     @Param("name") String namePrefix,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+
+    // Préfixe de nom : une requête par colonne (plage sur idx_user_last_name / idx_user_first_name),
+    // fusionnées par id dans le service
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, "
+            + "u.roleType as roleType from User u "
+            + "where u.lastName like :name escape '!' and u.id > :afterId "
+            + "and (:role is null or u.roleType = :role) "
+            + "order by u.id")
+    List<UserSummary> findDirectoryPageByLastNamePrefix(@Param("name") String namePrefix,
+                                                        @Param("role") RoleType role,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, "
+            + "u.roleType as roleType from User u "
+            + "where u.firstName like :name escape '!' and u.id > :afterId "
+            + "and (:role is null or u.roleType = :role) "
+            + "order by u.id")
+    List<UserSummary> findDirectoryPageByFirstNamePrefix(@Param("name") String namePrefix,
+                                                         @Param("role") RoleType role,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
 }
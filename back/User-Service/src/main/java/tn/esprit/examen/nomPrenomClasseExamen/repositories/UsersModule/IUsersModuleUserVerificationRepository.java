@@ -1,8 +1,30 @@
 package tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.UserVerification;
 
+import java.util.Date;
+
 public interface IUsersModuleUserVerificationRepository extends JpaRepository<UserVerification, Long> {
-    UserVerification findByEmail(String email);
-}
\ No newline at end of file
+    // Verrou de ligne jusqu'à la fin de la transaction : les essais parallèles sont comptés l'un après l'autre
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from UserVerification v where v.email = :email")
+    UserVerification findByEmailForUpdate(@Param("email") String email);
+
+    @Modifying
+    @Transactional
+    @Query("update UserVerification v set v.verificationCode = :code, v.expiresAt = :expiresAt, v.attempts = 0 "
+            + "where v.email = :email")
+    int replaceCode(@Param("email") String email, @Param("code") String code, @Param("expiresAt") Date expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserVerification v where v.expiresAt is null or v.expiresAt < :now")
+    int deleteExpired(@Param("now") Date now);
+}
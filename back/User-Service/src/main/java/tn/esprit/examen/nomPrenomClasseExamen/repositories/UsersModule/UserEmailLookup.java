@@ -0,0 +1,8 @@
+package tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule;
+
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+
+// Recherche par email via l'identifiant naturel : servie par le cache de second niveau quand c'est possible
+public interface UserEmailLookup {
+    User findByEmail(String email);
+}
@@ -0,0 +1,28 @@
+package tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+
+// Fragment de IUserRepository : email -> id dans la région "user-email", puis id -> utilisateur dans "user".
+// Deux lectures en mémoire au lieu d'un SELECT ; en cas d'absence, une seule requête alimente les deux régions.
+public class UserEmailLookupImpl implements UserEmailLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        // Le cache est indexé par l'email tel qu'enregistré (rogné, casse d'origine) : une autre casse
+        // trouve toujours la ligne en base (MySQL compare sans casse) mais ne profite pas du cache
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .load(email.trim());
+    }
+}
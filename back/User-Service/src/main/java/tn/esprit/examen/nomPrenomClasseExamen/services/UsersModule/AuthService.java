@@ -1,13 +1,13 @@
 package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import tn.esprit.examen.nomPrenomClasseExamen.controllers.UsersModule.VerificationCodeGenerator;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
-import tn.esprit.examen.nomPrenomClasseExamen.entities.UserVerification;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventType;
 import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUserRepository;
-import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUsersModuleUserVerificationRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -19,8 +19,12 @@ import org.springframework.beans.factory.annotation.Value;
 public class AuthService {
 
     private final IUserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final IUsersModuleUserVerificationRepository verificationRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final OtpStore otpStore;
+    private final UserEventPublisher userEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final UserUniquenessService userUniquenessService;
+    private final UserCacheEvictor userCacheEvictor;
 
     @Autowired
     @Qualifier("userEmailService")
@@ -28,8 +32,20 @@ public class AuthService {
 
     // Enregistrement de l'utilisateur avec le mot de passe crypté
     public User register(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword())); // Encrypte le mot de passe
-        return userRepository.save(user); // Sauvegarde l'utilisateur
+        user.setPassword(passwordHashingService.encode(user.getPassword())); // Encrypte le mot de passe (hors transaction)
+        userUniquenessService.normalize(user);
+        // Utilisateur et événement REGISTERED écrits ensemble : Kafka est relayé plus tard depuis l'outbox
+        try {
+            return transactionTemplate.execute(status -> {
+                User saved = userRepository.saveAndFlush(user); // flush : la contrainte unique est vérifiée ici
+                userEventPublisher.record(UserEventType.REGISTERED, saved);
+                userUniquenessService.registered(saved);
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            DuplicateUserException duplicate = userUniquenessService.translate(e);
+            throw duplicate != null ? duplicate : e;
+        }
     }
 
     // Chargement d'un utilisateur par son email
@@ -43,7 +59,23 @@ public class AuthService {
 
     // Vérification du mot de passe (brut vs crypté)
     public boolean checkPassword(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword); // Vérifie que le mot de passe correspond
+        return passwordHashingService.matches(rawPassword, encodedPassword); // Vérifie que le mot de passe correspond
+    }
+
+    // Connexion : null si le mot de passe est faux. Un hash d'un autre coût est refait en arrière-plan.
+    public User authenticate(String email, String rawPassword) {
+        User user = loadUserByEmail(email);
+        String storedHash = user.getPassword();
+        if (!checkPassword(rawPassword, storedHash)) {
+            return null;
+        }
+        if (passwordHashingService.needsRehash(storedHash)) {
+            Long userId = user.getId();
+            // Mise à jour conditionnelle : ne pas écraser un reset de mot de passe concurrent
+            passwordHashingService.rehashAsync(rawPassword,
+                    newHash -> userRepository.updatePasswordHash(userId, storedHash, newHash));
+        }
+        return user;
     }
 
     // Chargement de l'utilisateur par son ID
@@ -59,15 +91,7 @@ public class AuthService {
 
         String code = VerificationCodeGenerator.generateVerificationCode(); // Génère le code OTP
 
-        // Recherche si un code de vérification existe déjà pour cet email
-        UserVerification verification = verificationRepository.findByEmail(email);
-        if (verification == null) {
-            verification = new UserVerification(); // Crée une nouvelle instance si aucun code OTP n'existe
-            verification.setEmail(email);
-        }
-
-        verification.setVerificationCode(code); // Associe le code OTP à l'utilisateur
-        verificationRepository.save(verification); // Sauvegarde ou met à jour la vérification dans la base de données
+        otpStore.save(email, code); // Remplace un éventuel code précédent, avec expiration
 
         // Logique pour envoyer l'email (prend en charge l'envoi d'un email ici)
         emailService.sendVerificationEmail(email, code);
@@ -75,9 +99,8 @@ public class AuthService {
 
     // Réinitialisation du mot de passe avec l'OTP
     public void resetPassword(String email, String otp, String newPassword) {
-        // Recherche de la vérification pour cet email
-        UserVerification verification = verificationRepository.findByEmail(email);
-        if (verification == null || !verification.getVerificationCode().trim().equalsIgnoreCase(otp.trim())) {
+        // Vérification de l'OTP (expiration, nombre de tentatives, comparaison en temps constant)
+        if (!otpStore.verify(email, otp)) {
             throw new RuntimeException("Code de vérification invalide");
         }
 
@@ -87,10 +110,12 @@ public class AuthService {
             throw new RuntimeException("Utilisateur non trouvé");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword)); // Mise à jour du mot de passe crypté
-        userRepository.save(user); // Sauvegarde de l'utilisateur avec le nouveau mot de passe
-
-        verificationRepository.delete(verification); // Suppression de l'OTP après la réinitialisation réussie
+        user.setPassword(passwordHashingService.encode(newPassword)); // Mise à jour du mot de passe crypté
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user); // Sauvegarde de l'utilisateur avec le nouveau mot de passe
+            userEventPublisher.record(UserEventType.PASSWORD_RESET, user);
+        });
+        userCacheEvictor.evict(user.getId(), true);
     }
 
 
@@ -0,0 +1,9 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+// Email ou téléphone déjà pris (contrainte unique uk_user_email / uk_user_phone_number)
+public class DuplicateUserException extends RuntimeException {
+
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
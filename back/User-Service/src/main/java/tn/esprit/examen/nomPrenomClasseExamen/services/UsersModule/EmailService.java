@@ -1,21 +1,225 @@
 package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Envoi asynchrone des emails : file bornée + quelques workers qui envoient par lots.
+// Chaque worker garde sa connexion SMTP ouverte d'un lot à l'autre (pas de handshake TLS + AUTH par lot) ;
+// elle est fermée après mail.dispatch.idle-timeout-ms sans envoi et rouverte après une erreur de transport.
+@Slf4j
 @Service("userEmailService")
 public class EmailService {
 
-@Autowired
-    private JavaMailSender mailSender;
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mail.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${mail.dispatch.workers:2}")
+    private int workers;
+
+    @Value("${mail.dispatch.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.dispatch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${mail.dispatch.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    // En dessous du délai de coupure des serveurs SMTP pour une connexion inactive
+    @Value("${mail.dispatch.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    private BlockingQueue<SimpleMailMessage> queue;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    private Timer sendLatency;
+    private Counter sentCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("mail.dispatch.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        sendLatency = Timer.builder("mail.dispatch.send.latency").register(meterRegistry);
+        sentCounter = Counter.builder("mail.dispatch.sent").register(meterRegistry);
+        failedCounter = Counter.builder("mail.dispatch.failed").register(meterRegistry);
+
+        // Threads classiques même en mode virtual-threads : le transport SMTP (Angus Mail) envoie sous
+        // synchronized, ce qui bloquerait le thread porteur. Le nombre de workers est de toute façon fixe.
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::drainQueue);
+        }
+    }
 
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} email(s) non envoyé(s) à l'arrêt", queue.size());
+        }
+    }
+
+    // Retourne dès que le message est en file ; l'envoi SMTP se fait en arrière-plan
     public void sendVerificationEmail(String toEmail, String verificationCode) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(toEmail);
         message.setSubject("Code de vérification");
         message.setText("Votre code de vérification est : " + verificationCode);
-        mailSender.send(message);
+        if (!queue.offer(message)) {
+            throw new RuntimeException("File d'envoi des emails saturée, réessayez plus tard");
+        }
+    }
+
+    private void drainQueue() {
+        SmtpConnection connection = new SmtpConnection();
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    SimpleMailMessage first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        connection.closeIfIdle();
+                        continue;
+                    }
+                    List<SimpleMailMessage> batch = new ArrayList<>(batchSize);
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    sendBatch(connection, batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Erreur inattendue dans le worker d'envoi d'emails", e);
+                }
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void sendBatch(SmtpConnection connection, List<SimpleMailMessage> batch) throws InterruptedException {
+        List<SimpleMailMessage> pending = batch;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long start = System.nanoTime();
+            List<SimpleMailMessage> failed = new ArrayList<>();
+            String error = null;
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    connection.send(pending.get(i));
+                    sentCounter.increment();
+                } catch (SendFailedException e) {
+                    // Destinataire refusé : la connexion reste utilisable
+                    failed.add(pending.get(i));
+                    error = e.getMessage();
+                } catch (MessagingException e) {
+                    // Connexion perdue ou refusée : rouverte à la tentative suivante pour ce message et les suivants
+                    connection.close();
+                    failed.addAll(pending.subList(i, pending.size()));
+                    error = e.getMessage();
+                    break;
+                }
+            }
+            sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (failed.isEmpty()) {
+                return;
+            }
+            pending = failed;
+            log.warn("Envoi de {} email(s) échoué (tentative {}/{}) : {}",
+                    pending.size(), attempt, maxAttempts, error);
+            if (attempt < maxAttempts) {
+                Thread.sleep(retryBackoffMs << (attempt - 1)); // backoff exponentiel
+            }
+        }
+        failedCounter.increment(pending.size());
+        log.error("{} email(s) abandonné(s) après {} tentatives", pending.size(), maxAttempts);
+    }
+
+    // Connexion SMTP d'un worker (jamais partagée entre threads), ouverte au premier envoi
+    private class SmtpConnection {
+        private Transport transport;
+        private long lastUsed;
+
+        void send(SimpleMailMessage message) throws MessagingException {
+            MimeMessage mime = mailSender.createMimeMessage();
+            message.copyTo(new MimeMailMessage(mime));
+            mime.setSentDate(new Date());
+            mime.saveChanges();
+            connected().sendMessage(mime, mime.getAllRecipients());
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private Transport connected() throws MessagingException {
+            if (transport != null && System.currentTimeMillis() - lastUsed > idleTimeoutMs) {
+                close(); // probablement déjà coupée par le serveur
+            }
+            if (transport == null) {
+                Transport opened = mailSender.getSession().getTransport(mailSender.getProtocol());
+                opened.connect(mailSender.getHost(), mailSender.getPort(),
+                        mailSender.getUsername(), mailSender.getPassword());
+                transport = opened;
+                lastUsed = System.currentTimeMillis();
+            }
+            return transport;
+        }
+
+        void closeIfIdle() {
+            if (transport != null && System.currentTimeMillis() - lastUsed > idleTimeoutMs) {
+                close();
+            }
+        }
+
+        void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Fermeture de la connexion SMTP : {}", e.getMessage());
+            }
+            transport = null;
+        }
     }
 }
@@ -1,8 +1,12 @@
 package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
 
 import org.springframework.http.ResponseEntity;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserDirectoryPage;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface IUserService {
@@ -13,5 +17,7 @@ public interface IUserService {
     void removeUser(long idUser);
     User findByEmail(String email);
     User authenticateUser(String email, String password);
+    UserDirectoryPage getUserDirectory(RoleType role, String namePrefix, String emailPrefix, Long afterId, int size);
+    void exportUserDirectory(RoleType role, String namePrefix, String emailPrefix, OutputStream out) throws IOException;
 
 }
@@ -0,0 +1,59 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Store OTP par défaut : map concurrente avec expiration, sans aller-retour SQL
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private final Map<String, Entry> codes = new ConcurrentHashMap<>();
+
+    @Value("${otp.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    public void save(String email, String code) {
+        codes.put(email, new Entry(code, System.currentTimeMillis() + ttlSeconds * 1000, 0));
+    }
+
+    @Override
+    public boolean verify(String email, String code) {
+        boolean[] valid = {false};
+        codes.computeIfPresent(email, (key, entry) -> {
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            if (OtpStore.codesMatch(entry.code, code)) {
+                valid[0] = true;
+                return null; // code consommé
+            }
+            int attempts = entry.attempts + 1;
+            return attempts >= maxAttempts ? null : new Entry(entry.code, entry.expiresAt, attempts);
+        });
+        return valid[0];
+    }
+
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        codes.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final String code;
+        private final long expiresAt;
+        private final int attempts;
+    }
+}
@@ -0,0 +1,73 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserVerification;
+import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUsersModuleUserVerificationRepository;
+
+import java.util.Date;
+
+// Store OTP partagé en base, pour les déploiements multi-instances (otp.store=jpa)
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "otp.store", havingValue = "jpa")
+public class JpaOtpStore implements OtpStore {
+
+    private final IUsersModuleUserVerificationRepository verificationRepository;
+
+    @Value("${otp.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    // Upsert sur l'index unique de l'email, chaque étape dans sa propre transaction : si une demande
+    // simultanée insère la ligne d'abord, l'insertion échoue et le code remplace le sien
+    @Override
+    public void save(String email, String code) {
+        Date expiresAt = new Date(System.currentTimeMillis() + ttlSeconds * 1000);
+        if (verificationRepository.replaceCode(email, code, expiresAt) > 0) {
+            return;
+        }
+        try {
+            verificationRepository.saveAndFlush(new UserVerification(null, email, code, expiresAt, 0));
+        } catch (DataIntegrityViolationException e) {
+            verificationRepository.replaceCode(email, code, expiresAt);
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean verify(String email, String code) {
+        UserVerification verification = verificationRepository.findByEmailForUpdate(email);
+        if (verification == null) {
+            return false;
+        }
+        if (verification.getExpiresAt() == null || verification.getExpiresAt().before(new Date())) {
+            verificationRepository.delete(verification);
+            return false;
+        }
+        if (OtpStore.codesMatch(verification.getVerificationCode(), code)) {
+            verificationRepository.delete(verification);
+            return true;
+        }
+        int attempts = (verification.getAttempts() == null ? 0 : verification.getAttempts()) + 1;
+        if (attempts >= maxAttempts) {
+            verificationRepository.delete(verification);
+        } else {
+            verification.setAttempts(attempts);
+            verificationRepository.save(verification);
+        }
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        verificationRepository.deleteExpired(new Date());
+    }
+}
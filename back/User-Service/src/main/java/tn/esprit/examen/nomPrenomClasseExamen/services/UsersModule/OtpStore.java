@@ -0,0 +1,22 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+
+public interface OtpStore {
+    void save(String email, String code);
+
+    // Vérifie le code et le consomme s'il est valide ; chaque échec compte comme une tentative
+    boolean verify(String email, String code);
+
+    // Comparaison en temps constant, insensible à la casse et aux espaces comme avant
+    static boolean codesMatch(String expected, String provided) {
+        if (expected == null || provided == null) {
+            return false;
+        }
+        byte[] a = expected.trim().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        byte[] b = provided.trim().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(a, b);
+    }
+}
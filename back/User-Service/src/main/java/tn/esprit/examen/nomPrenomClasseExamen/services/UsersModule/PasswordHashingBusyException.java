@@ -0,0 +1,9 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+// Pool de hachage saturé : la requête est refusée (503) plutôt que d'attendre indéfiniment
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Trop de requêtes d'authentification en cours, réessayez dans un instant");
+    }
+}
@@ -0,0 +1,157 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// BCrypt hors des threads Tomcat : pool fixe (un thread par cœur) + file bornée.
+// File pleine => PasswordHashingBusyException (503) au lieu de saturer tous les cœurs pour tout le service.
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${password.hashing.threads:0}")
+    private int threads; // 0 = nombre de cœurs
+
+    @Value("${password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    // 0 : coût calibré par instance (SecurityConfig)
+    @Value("${password.bcrypt.strength:12}")
+    private int configuredStrength;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejectedCounter;
+    private int currentStrength;
+
+    @PostConstruct
+    void start() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Threads classiques même en mode virtual-threads : le travail est purement CPU
+        executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        rejectedCounter = Counter.builder("password.hashing.rejected").register(meterRegistry);
+        currentStrength = costOf(passwordEncoder.encode("strength-probe"));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return call(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return call(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Hash BCrypt dont le coût diffère du réglage configuré. Coût calibré : seulement s'il est plus faible,
+    // sinon deux instances calibrées différemment réécriraient le hash à chaque connexion
+    public boolean needsRehash(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        if (cost <= 0) {
+            return false;
+        }
+        return configuredStrength > 0 ? cost != currentStrength : cost < currentStrength;
+    }
+
+    // Rehash en tâche de fond, seulement si le pool a de la marge : sinon ce sera à la prochaine connexion
+    public void rehashAsync(String rawPassword, Consumer<String> onHashed) {
+        if (executor.getQueue().size() > queueCapacity / 2) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    onHashed.accept(passwordEncoder.encode(rawPassword));
+                } catch (RuntimeException e) {
+                    log.warn("Rehash du mot de passe échoué : {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Rehash ignoré, pool de hachage saturé");
+        }
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Format $2a$10$... : le coût est entre le 2e et le 3e '$'
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int start = encodedPassword.indexOf('$', 1) + 1;
+        int end = start > 0 ? encodedPassword.indexOf('$', start) : -1;
+        if (end <= start) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,25 +1,66 @@
 package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
-import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEvent;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventType;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+// Envoi asynchrone vers user-events : batching, compression et idempotence sont réglés dans
+// spring.kafka.producer.* ; les métriques du client Kafka sont exposées par l'actuator (kafka.producer.*)
+@Slf4j
 @Service
 public class ProducerService {
 
+    public static final String TOPIC = "user-events";
+
     @Autowired
     private KafkaTemplate<String, String> kafkaTemplate;
 
-    private static final String TOPIC = "user-events";
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     public void sendMessage(String message) {
         kafkaTemplate.send(TOPIC, message);
     }
 
-    //public void sendUserList(List<User> users) {
-       // kafkaTemplate.send(TOPIC, users);
-    //}
+    public String serialize(UserEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de l'événement impossible", e);
+        }
+    }
+
+    public CompletableFuture<SendResult<String, String>> send(UserEvent event) {
+        return send(event.getType(), event.getUserId() != null ? event.getUserId().toString() : null, serialize(event));
+    }
+
+    // Ne bloque pas sur l'acquittement : le résultat est compté dans le callback
+    public CompletableFuture<SendResult<String, String>> send(UserEventType type, String key, String payload) {
+        CompletableFuture<SendResult<String, String>> future;
+        try {
+            future = kafkaTemplate.send(TOPIC, key, payload);
+        } catch (RuntimeException e) {
+            // métadonnées indisponibles au-delà de max.block.ms, buffer plein...
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, ex) -> {
+            meterRegistry.counter("user.events.sent", "type", type.name(),
+                    "outcome", ex == null ? "success" : "failure").increment();
+            if (ex != null) {
+                log.warn("Envoi de l'événement {} (clé {}) échoué : {}", type, key, ex.getMessage());
+            }
+        });
+    }
 }
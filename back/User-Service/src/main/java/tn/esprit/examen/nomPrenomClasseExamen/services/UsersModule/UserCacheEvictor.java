@@ -0,0 +1,124 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+import tn.esprit.examen.nomPrenomClasseExamen.config.TokenCache;
+import tn.esprit.examen.nomPrenomClasseExamen.config.TokenRevocationList;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Les régions "user" et "user-email" et le cache des jetons sont locaux à chaque instance. Hibernate met à
+// jour ses régions pour les écritures faites ici ; les autres instances sont prévenues par le topic
+// user-cache-invalidation (user.cache.invalidation.enabled). Sans ce canal, une instance voisine sert
+// l'ancienne version au plus jusqu'à l'expiration de hibernate.cache.caffeine.spec.
+// Message : clé = id de l'utilisateur, valeur = "<instance>" ou "<instance>:<limite de révocation en ms>".
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCacheEvictor implements ConsumerSeekAware {
+
+    public static final String TOPIC = "user-cache-invalidation";
+    // Les messages émis par cette instance lui reviennent : on les reconnaît à cet identifiant
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TokenRevocationList tokenRevocationList;
+    private final TokenCache tokenCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.cache.invalidation.enabled:true}")
+    private boolean broadcast;
+
+    // Après commit, ici puis sur les autres instances : une requête concurrente ne peut plus remettre en
+    // cache l'ancien principal, et une instance voisine qui relit aussitôt trouve la nouvelle ligne.
+    // revokeTokens : identité, mot de passe ou droits changés, ou utilisateur supprimé ; sinon seul le
+    // principal en cache est rafraîchi, l'utilisateur reste connecté
+    public void evict(Long userId, boolean revokeTokens) {
+        if (userId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            Long revokedBefore = null;
+            if (revokeTokens) {
+                revokedBefore = tokenRevocationList.revoke(userId);
+            } else {
+                tokenCache.evictUser(userId);
+            }
+            if (broadcast) {
+                publish(userId, revokedBefore);
+            }
+        });
+    }
+
+    // Assignation manuelle de toutes les partitions : chaque instance reçoit tout sans créer de groupe à
+    // son nom (un groupe aléatoire par démarrage restait sur le broker). Le groupe fixe ne sert qu'aux
+    // commits d'offsets, ignorés puisqu'on repart de la fin à chaque démarrage.
+    @KafkaListener(topicPartitions = @TopicPartition(topic = TOPIC,
+                    partitions = "#{@kafkaPartitionFinder.partitions('" + TOPIC + "')}"),
+            groupId = "${spring.application.name}-cache-invalidation",
+            autoStartup = "${user.cache.invalidation.enabled:true}")
+    public void onInvalidation(ConsumerRecord<String, String> record) {
+        String value = record.value() == null ? "" : record.value();
+        int separator = value.indexOf(':');
+        if (INSTANCE_ID.equals(separator < 0 ? value : value.substring(0, separator))) {
+            return;
+        }
+        Long userId;
+        Long revokedBefore;
+        try {
+            userId = Long.valueOf(record.key());
+            revokedBefore = separator < 0 ? null : Long.valueOf(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            log.warn("Invalidation ignorée, message invalide : {} = {}", record.key(), value);
+            return;
+        }
+        evictLocal(userId);
+        if (revokedBefore != null) {
+            tokenRevocationList.revoke(userId, revokedBefore);
+        } else {
+            tokenCache.evictUser(userId);
+        }
+        meterRegistry.counter("user.cache.invalidations", "direction", "received").increment();
+    }
+
+    // Seuls les messages postérieurs au démarrage comptent : les caches locaux partent vides
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    public void evictLocal(Long userId) {
+        entityManagerFactory.getCache().evict(User.class, userId);
+        // Pas d'éviction ciblée pour l'identifiant naturel : l'ancien email pointerait encore vers cet id
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(User.class);
+    }
+
+    private void publish(Long userId, Long revokedBefore) {
+        String value = revokedBefore == null ? INSTANCE_ID : INSTANCE_ID + ":" + revokedBefore;
+        try {
+            kafkaTemplate.send(TOPIC, userId.toString(), value).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Invalidation du cache pour l'utilisateur {} non diffusée : {}", userId, ex.getMessage());
+                } else {
+                    meterRegistry.counter("user.cache.invalidations", "direction", "sent").increment();
+                }
+            });
+        } catch (RuntimeException e) {
+            // La modification est déjà validée : l'échec de diffusion ne doit pas la faire paraître en erreur
+            log.warn("Invalidation du cache pour l'utilisateur {} non diffusée : {}", userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.OutboxRelayLease;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEvent;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventOutbox;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventType;
+import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IOutboxRelayLeaseRepository;
+import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUserEventOutboxRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Publication des événements utilisateur :
+//  - cycle de vie (inscription, mise à jour, reset) : ligne d'outbox écrite dans la transaction métier,
+//    relayée par lots vers Kafka puis supprimée (at-least-once, les consommateurs dédoublonnent sur l'id).
+//    Une seule instance relaie à la fois (bail OutboxRelayLease) : pas d'envoi en double ni de dépassement
+//    entre instances sur une même clé
+//  - connexions : file mémoire bornée, sans écriture en base sur le chemin du login (best-effort)
+@Slf4j
+@Service
+public class UserEventPublisher {
+
+    private static final String RELAY_LEASE = "user-events";
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    @Autowired
+    private IUserEventOutboxRepository outboxRepository;
+
+    @Autowired
+    private IOutboxRelayLeaseRepository leaseRepository;
+
+    @Autowired
+    private ProducerService producerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user-events.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${user-events.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    // Au-delà de l'attente maximale d'un lot : le bail ne peut pas expirer pendant un envoi
+    @Value("${user-events.relay.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${user-events.transient.queue-capacity:10000}")
+    private int transientCapacity;
+
+    private BlockingQueue<UserEvent> transientQueue;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    void init() {
+        transientQueue = new ArrayBlockingQueue<>(transientCapacity);
+        Gauge.builder("user.events.transient.depth", transientQueue, BlockingQueue::size).register(meterRegistry);
+        droppedCounter = Counter.builder("user.events.dropped").register(meterRegistry);
+    }
+
+    // À appeler dans la transaction qui modifie l'utilisateur
+    public void record(UserEventType type, User user) {
+        UserEvent event = UserEvent.of(type, user);
+        outboxRepository.save(new UserEventOutbox(null, type, String.valueOf(user.getId()),
+                producerService.serialize(event), new Date(), 0));
+    }
+
+    public void recordTransient(UserEventType type, User user) {
+        if (!transientQueue.offer(UserEvent.of(type, user))) {
+            droppedCounter.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user-events.relay.interval-ms:500}")
+    public void relay() {
+        relayTransient();
+        List<UserEventOutbox> batch;
+        do {
+            if (!acquireLease()) {
+                return; // une autre instance relaie
+            }
+            batch = outboxRepository.findBatch(PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || !relayBatch(batch)) {
+                return; // rien à envoyer, ou broker indisponible : nouvel essai au prochain passage
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    // Pris, prolongé, ou créé au premier passage
+    private boolean acquireLease() {
+        long now = System.currentTimeMillis();
+        if (leaseRepository.acquire(RELAY_LEASE, INSTANCE_ID, new Date(now), new Date(now + leaseMs)) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(RELAY_LEASE)) {
+            return false;
+        }
+        try {
+            leaseRepository.saveAndFlush(new OutboxRelayLease(RELAY_LEASE, INSTANCE_ID, new Date(now + leaseMs)));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false; // créé au même moment par une autre instance
+        }
+    }
+
+    private void relayTransient() {
+        List<UserEvent> events = new ArrayList<>(Math.min(batchSize, transientQueue.size()));
+        transientQueue.drainTo(events, batchSize);
+        for (int i = 0; i < events.size(); i++) {
+            if (producerService.send(events.get(i)).isCompletedExceptionally()) {
+                // Échec synchrone (broker injoignable après max.block.ms) : les suivants attendront autant,
+                // ils sont remis en file pour le prochain passage
+                events.subList(i + 1, events.size()).forEach(this::requeue);
+                return;
+            }
+        }
+    }
+
+    private void requeue(UserEvent event) {
+        if (!transientQueue.offer(event)) {
+            droppedCounter.increment();
+        }
+    }
+
+    // Tous les envois du lot partent avant la première attente : le producteur les regroupe (linger/batch).
+    // Un échec synchrone arrête les envois : chacun des suivants bloquerait max.block.ms
+    private boolean relayBatch(List<UserEventOutbox> batch) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        for (UserEventOutbox row : batch) {
+            CompletableFuture<?> future = producerService.send(row.getEventType(), row.getMessageKey(), row.getPayload());
+            futures.add(future);
+            if (future.isCompletedExceptionally()) {
+                break;
+            }
+        }
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + sendTimeoutMs;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                sent.add(batch.get(i).getId());
+            } catch (ExecutionException | TimeoutException e) {
+                failed.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(sent);
+        }
+        if (!failed.isEmpty()) {
+            outboxRepository.incrementAttempts(failed);
+            log.warn("{} événement(s) utilisateur non relayé(s), nouvel essai au prochain passage", failed.size());
+        }
+        return failed.isEmpty() && sent.size() == batch.size();
+    }
+}
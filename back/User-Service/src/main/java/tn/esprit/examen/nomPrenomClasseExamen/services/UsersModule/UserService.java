@@ -1,15 +1,31 @@
 package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
 import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserDirectoryPage;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserEventType;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserSummary;
 import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUserRepository;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
 
 @Service
 public class UserService implements IUserService {
@@ -17,6 +33,21 @@ public class UserService implements IUserService {
     @Autowired
     private IUserRepository userRepository;
 
+    @Autowired
+    private UserEventPublisher userEventPublisher;
+
+    @Autowired
+    private UserUniquenessService userUniquenessService;
+
+    @Autowired
+    private UserCacheEvictor userCacheEvictor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${user.directory.export-batch-size:1000}")
+    private int exportBatchSize;
+
     @Override
     public User authenticateUser(String email, String password) {
         // Recherche de l'utilisateur par email
@@ -39,13 +70,46 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @Transactional
     public User addUser(User user) {
-        return userRepository.save(user);
+        userUniquenessService.normalize(user);
+        User saved = saveChecked(user);
+        userEventPublisher.record(UserEventType.REGISTERED, saved);
+        userUniquenessService.registered(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public User updateUser(User user) {
-        return userRepository.save(user);
+        userUniquenessService.normalize(user);
+        // Anciennes valeurs lues avant le merge, pour mettre à jour le filtre d'unicité
+        User existing = user.getId() != null ? userRepository.findById(user.getId()).orElse(null) : null;
+        String oldEmail = existing != null ? existing.getEmail() : null;
+        String oldPhoneNumber = existing != null ? existing.getPhoneNumber() : null;
+        String oldPassword = existing != null ? existing.getPassword() : null;
+        RoleType oldRoleType = existing != null ? existing.getRoleType() : null;
+        User saved = saveChecked(user);
+        userEventPublisher.record(UserEventType.UPDATED, saved);
+        userUniquenessService.changed(oldEmail, oldPhoneNumber, saved);
+        // Les jetons ne sont révoqués que si l'identité ou les droits changent : modifier son profil
+        // ne doit pas déconnecter l'utilisateur
+        boolean securityChanged = existing == null
+                || !Objects.equals(oldEmail, saved.getEmail())
+                || !Objects.equals(oldPassword, saved.getPassword())
+                || oldRoleType != saved.getRoleType();
+        userCacheEvictor.evict(saved.getId(), securityChanged);
+        return saved;
+    }
+
+    // Flush immédiat : une violation de contrainte unique remonte ici et non au commit
+    private User saveChecked(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            DuplicateUserException duplicate = userUniquenessService.translate(e);
+            throw duplicate != null ? duplicate : e;
+        }
     }
 
     @Override
@@ -56,8 +120,13 @@ public class UserService implements IUserService {
 
 
     @Override
+    @Transactional
     public void removeUser(long idUser) {
-        userRepository.deleteById(idUser);
+        userRepository.findById(idUser).ifPresent(user -> {
+            userRepository.delete(user);
+            userUniquenessService.deleted(user.getEmail(), user.getPhoneNumber());
+        });
+        userCacheEvictor.evict(idUser, true);
     }
 
     @Override
@@ -65,6 +134,62 @@ public class UserService implements IUserService {
         return userRepository.findByEmail(email);
     }
 
+    @Override
+    public UserDirectoryPage getUserDirectory(RoleType role, String namePrefix, String emailPrefix, Long afterId, int size) {
+        // Un élément de plus pour savoir s'il existe une page suivante
+        List<UserSummary> rows = directoryRows(role, likePrefix(namePrefix), likePrefix(emailPrefix),
+                afterId == null ? 0L : afterId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<UserSummary> items = hasNext ? rows.subList(0, size) : rows;
+        return new UserDirectoryPage(items, hasNext, hasNext ? items.get(items.size() - 1).getId() : null);
+    }
+
+    // NDJSON par lots successifs du même curseur : mémoire constante, aucune connexion tenue entre deux lots
+    @Override
+    public void exportUserDirectory(RoleType role, String namePrefix, String emailPrefix, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        String name = likePrefix(namePrefix);
+        String email = likePrefix(emailPrefix);
+        long afterId = 0;
+        List<UserSummary> batch;
+        do {
+            batch = directoryRows(role, name, email, afterId, exportBatchSize);
+            for (UserSummary row : batch) {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+                afterId = row.getId();
+            }
+            writer.flush();
+        } while (batch.size() == exportBatchSize);
+    }
 
+    // Choix de la requête selon le filtre le plus sélectif : email (unique), puis nom, puis rôle
+    private List<UserSummary> directoryRows(RoleType role, String name, String email, long afterId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (email != null) {
+            return userRepository.findDirectoryPageByEmailPrefix(email, role, name, afterId, page);
+        }
+        if (name != null) {
+            // Les deux listes sont triées par id au-delà du curseur : les "limit" premiers de leur union
+            // sont parmi les "limit" premiers de chacune
+            TreeMap<Long, UserSummary> merged = new TreeMap<>();
+            userRepository.findDirectoryPageByLastNamePrefix(name, role, afterId, page)
+                    .forEach(row -> merged.put(row.getId(), row));
+            userRepository.findDirectoryPageByFirstNamePrefix(name, role, afterId, page)
+                    .forEach(row -> merged.putIfAbsent(row.getId(), row));
+            return merged.values().stream().limit(limit).toList();
+        }
+        if (role != null) {
+            return userRepository.findDirectoryPageByRole(role, afterId, page);
+        }
+        return userRepository.findDirectoryPage(afterId, page);
+    }
 
+    // Préfixe pour LIKE, avec '!' comme caractère d'échappement (un '\\' serait ré-interprété par MySQL)
+    private static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return prefix.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
 }
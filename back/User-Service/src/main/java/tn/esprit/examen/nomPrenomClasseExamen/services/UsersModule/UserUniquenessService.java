@@ -0,0 +1,232 @@
+package tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tn.esprit.examen.nomPrenomClasseExamen.config.CountingBloomFilter;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.UserContactKeys;
+import tn.esprit.examen.nomPrenomClasseExamen.repositories.UsersModule.IUserRepository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// "Cet email / ce téléphone est-il libre ?" : réponse en mémoire quand le filtre dit "absent",
+// requête exists (index unique) sinon. Les contraintes uniques restent la seule vérité à l'insertion.
+// Réponse indicative seulement : le filtre est propre à l'instance et ne voit les comptes créés par les
+// autres instances qu'au rechargement suivant (rebuild-interval-ms). "Pris" est toujours exact (SQL),
+// "libre" peut être faux jusque-là ; l'inscription échoue alors proprement sur la contrainte unique.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserUniquenessService {
+
+    public static final String EMAIL_TAKEN = "L'email est déjà utilisé.";
+    public static final String PHONE_TAKEN = "Le numéro de téléphone est déjà utilisé.";
+
+    private final IUserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.membership.expected-entries:200000}")
+    private long expectedEntries;
+
+    @Value("${user.membership.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${user.membership.rebuild-batch-size:1000}")
+    private int batchSize;
+
+    // null tant que le premier chargement n'est pas terminé (tout part alors en SQL)
+    private volatile Filters filters;
+    // filtres en cours de reconstruction : reçoivent aussi les modifications pour ne rien perdre
+    private volatile Filters building;
+
+    private Counter answeredInMemory;
+    private Counter answeredBySql;
+
+    @PostConstruct
+    void init() {
+        answeredInMemory = Counter.builder("user.membership.lookups").tag("answer", "memory").register(meterRegistry);
+        answeredBySql = Counter.builder("user.membership.lookups").tag("answer", "database").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    // Recharge périodique : remet à zéro la dérive (compteurs saturés, changements faits par d'autres instances)
+    @Scheduled(initialDelayString = "${user.membership.rebuild-interval-ms:900000}",
+            fixedDelayString = "${user.membership.rebuild-interval-ms:900000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long expected = Math.max(expectedEntries, userRepository.count() * 2);
+        Filters next = new Filters(new CountingBloomFilter(expected, falsePositiveRate),
+                new CountingBloomFilter(expected, falsePositiveRate));
+        building = next;
+        try {
+            long afterId = 0;
+            List<UserContactKeys> page;
+            do {
+                page = userRepository.findContactKeys(afterId, PageRequest.of(0, batchSize));
+                for (UserContactKeys keys : page) {
+                    next.load(keys.getEmail(), keys.getPhoneNumber());
+                    afterId = keys.getId();
+                }
+            } while (page.size() == batchSize);
+            filters = next;
+            log.info("Filtre d'unicité chargé en {} ms ({} Ko)", System.currentTimeMillis() - start,
+                    (next.emails.sizeInBytes() + next.phones.sizeInBytes()) / 1024);
+        } finally {
+            building = null;
+        }
+    }
+
+    public boolean isEmailAvailable(String email) {
+        String key = normalizeEmail(email);
+        if (key == null) {
+            return true;
+        }
+        Filters current = filters;
+        if (current != null && !current.emails.mightContain(key)) {
+            answeredInMemory.increment();
+            return true;
+        }
+        answeredBySql.increment();
+        return !userRepository.existsByEmail(email.trim());
+    }
+
+    public boolean isPhoneAvailable(String phoneNumber) {
+        String key = normalizePhone(phoneNumber);
+        if (key == null) {
+            return true;
+        }
+        Filters current = filters;
+        if (current != null && !current.phones.mightContain(key)) {
+            answeredInMemory.increment();
+            return true;
+        }
+        answeredBySql.increment();
+        return !userRepository.existsByPhoneNumber(key);
+    }
+
+    // Téléphone vide => null : plusieurs NULL sont permis par l'index unique, pas plusieurs ""
+    public void normalize(User user) {
+        if (user.getEmail() != null) {
+            user.setEmail(user.getEmail().trim());
+        }
+        user.setPhoneNumber(normalizePhone(user.getPhoneNumber()));
+    }
+
+    public void registered(User user) {
+        TransactionCallbacks.afterCommit(() -> apply(f -> f.add(user.getEmail(), user.getPhoneNumber())));
+    }
+
+    public void changed(String oldEmail, String oldPhoneNumber, User user) {
+        String newEmail = user.getEmail();
+        String newPhoneNumber = user.getPhoneNumber();
+        TransactionCallbacks.afterCommit(() -> apply(f -> {
+            f.add(newEmail, newPhoneNumber);
+            f.remove(oldEmail, oldPhoneNumber);
+        }));
+    }
+
+    public void deleted(String email, String phoneNumber) {
+        TransactionCallbacks.afterCommit(() -> apply(f -> f.remove(email, phoneNumber)));
+    }
+
+    // Violation d'une des contraintes uniques => message lisible ; null pour toute autre violation
+    public DuplicateUserException translate(DataIntegrityViolationException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains("uk_user_email")) {
+            return new DuplicateUserException(EMAIL_TAKEN);
+        }
+        if (detail.contains("uk_user_phone_number")) {
+            return new DuplicateUserException(PHONE_TAKEN);
+        }
+        return null;
+    }
+
+    private void apply(Consumer<Filters> change) {
+        Filters current = filters;
+        if (current != null) {
+            change.accept(current);
+        }
+        Filters next = building;
+        if (next != null && next != current) {
+            change.accept(next);
+        }
+    }
+
+    // MySQL compare les emails sans tenir compte de la casse : le filtre fait de même
+    private static String normalizeEmail(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizePhone(String phoneNumber) {
+        return phoneNumber == null || phoneNumber.isBlank() ? null : phoneNumber.trim();
+    }
+
+    private static class Filters {
+        private final CountingBloomFilter emails;
+        private final CountingBloomFilter phones;
+        // Clés ajoutées par cette instance depuis le chargement : les seules qu'on sait pouvoir retirer.
+        // mightContain ne suffit pas (un faux positif décrémenterait les compteurs d'autres clés = faux négatifs)
+        private final Set<String> addedEmails = ConcurrentHashMap.newKeySet();
+        private final Set<String> addedPhones = ConcurrentHashMap.newKeySet();
+
+        private Filters(CountingBloomFilter emails, CountingBloomFilter phones) {
+            this.emails = emails;
+            this.phones = phones;
+        }
+
+        private void load(String email, String phoneNumber) {
+            String emailKey = normalizeEmail(email);
+            String phoneKey = normalizePhone(phoneNumber);
+            if (emailKey != null) {
+                emails.add(emailKey);
+            }
+            if (phoneKey != null) {
+                phones.add(phoneKey);
+            }
+        }
+
+        // Compteurs d'abord, puis la trace : remove ne peut pas décrémenter avant l'incrément
+        private void add(String email, String phoneNumber) {
+            load(email, phoneNumber);
+            String emailKey = normalizeEmail(email);
+            String phoneKey = normalizePhone(phoneNumber);
+            if (emailKey != null) {
+                addedEmails.add(emailKey);
+            }
+            if (phoneKey != null) {
+                addedPhones.add(phoneKey);
+            }
+        }
+
+        // Clé chargée depuis la base ou venue d'une autre instance : laissée en place, elle coûte une requête
+        // exists jusqu'au prochain chargement au lieu de risquer un faux négatif
+        private void remove(String email, String phoneNumber) {
+            String emailKey = normalizeEmail(email);
+            String phoneKey = normalizePhone(phoneNumber);
+            if (emailKey != null && addedEmails.remove(emailKey)) {
+                emails.remove(emailKey);
+            }
+            if (phoneKey != null && addedPhones.remove(phoneKey)) {
+                phones.remove(phoneKey);
+            }
+        }
+    }
+}
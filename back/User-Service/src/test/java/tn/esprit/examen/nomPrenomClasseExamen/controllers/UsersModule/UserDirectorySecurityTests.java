@@ -0,0 +1,90 @@
+package tn.esprit.examen.nomPrenomClasseExamen.controllers.UsersModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.examen.nomPrenomClasseExamen.config.JwtUtil;
+import tn.esprit.examen.nomPrenomClasseExamen.config.RateLimitProperties;
+import tn.esprit.examen.nomPrenomClasseExamen.config.SecurityConfig;
+import tn.esprit.examen.nomPrenomClasseExamen.config.TokenCache;
+import tn.esprit.examen.nomPrenomClasseExamen.config.TokenRevocationList;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.RoleType;
+import tn.esprit.examen.nomPrenomClasseExamen.entities.User;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.AuthService;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.IUserService;
+import tn.esprit.examen.nomPrenomClasseExamen.services.UsersModule.UserUniquenessService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// /user/directory et son export : réservés aux administrateurs, le reste de /user reste public
+@WebMvcTest(controllers = UserController.class, properties = "jwt.auth.claims-only=true")
+@Import({SecurityConfig.class, RateLimitProperties.class, JwtUtil.class, TokenCache.class, TokenRevocationList.class,
+        UserDirectorySecurityTests.Beans.class})
+class UserDirectorySecurityTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private IUserService userService;
+    @MockBean
+    private AuthService authService;
+    @MockBean
+    private UserUniquenessService userUniquenessService;
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void anonymousCallersAreRefused() throws Exception {
+        for (String path : new String[]{"/user/directory", "/user/directory/export"}) {
+            int status = mockMvc.perform(get(path)).andReturn().getResponse().getStatus();
+            assertThat(status).as(path).isIn(401, 403);
+        }
+    }
+
+    @Test
+    void nonAdminCallersAreForbidden() throws Exception {
+        String token = tokenFor(RoleType.ENSEIGNANT);
+        mockMvc.perform(get("/user/directory").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/user/directory/export").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminsCanReadTheDirectory() throws Exception {
+        mockMvc.perform(get("/user/directory").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenFor(RoleType.ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void otherUserEndpointsStayPublic() throws Exception {
+        mockMvc.perform(get("/user/allUser")).andExpect(status().isOk());
+    }
+
+    private String tokenFor(RoleType role) {
+        User user = new User();
+        user.setId(role == RoleType.ADMIN ? 1L : 2L);
+        user.setEmail(role.name().toLowerCase() + "@esprit.tn");
+        user.setRoleType(role);
+        return jwtUtil.generateToken(user);
+    }
+}
@@ -0,0 +1,46 @@
+// Load-test profile for the Formation-Service read paths (k6: https://k6.io).
+// Run it once against a service started normally and once with the "virtual-threads" profile,
+// then compare the two summaries with ./compare.sh (throughput and p99).
+//
+//   BASE_URL=http://localhost:9094/Formation-Service k6 run --summary-export results/classic.json catalogue.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9094/Formation-Service';
+const PEAK_VUS = parseInt(__ENV.PEAK_VUS || '400', 10);
+
+export const options = {
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    scenarios: {
+        catalogue: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: PEAK_VUS / 4 },
+                { duration: '1m', target: PEAK_VUS },
+                { duration: '2m', target: PEAK_VUS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+};
+
+const SEARCHES = ['java', 'gestion projet', 'cloud dev', 'python', 'agile sc'];
+
+export default function () {
+    const roll = Math.random();
+    let res;
+    if (roll < 0.4) {
+        res = http.get(`${BASE_URL}/api/formations/page?size=20`, { tags: { endpoint: 'page' } });
+    } else if (roll < 0.7) {
+        const q = SEARCHES[Math.floor(Math.random() * SEARCHES.length)];
+        res = http.get(`${BASE_URL}/api/formations/search?q=${encodeURIComponent(q)}`, { tags: { endpoint: 'search' } });
+    } else if (roll < 0.9) {
+        res = http.get(`${BASE_URL}/api/categories/summary`, { tags: { endpoint: 'categories' } });
+    } else {
+        // Chemin le plus lourd : graphe complet formations + catégories + réservations
+        res = http.get(`${BASE_URL}/api/formations`, { tags: { endpoint: 'formations' } });
+    }
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,20 @@
+#!/bin/sh
+# Compare two k6 summary exports (default: results/classic.json vs results/virtual.json).
+# Requires jq.
+set -e
+A=${1:-results/classic.json}
+B=${2:-results/virtual.json}
+
+for f in "$A" "$B"; do
+  [ -f "$f" ] || { echo "missing $f (run k6 with --summary-export)"; exit 1; }
+done
+
+printf '%-28s %12s %10s %10s %8s\n' "run" "req/s" "p50 ms" "p99 ms" "fail %"
+for f in "$A" "$B"; do
+  jq -r --arg name "$f" '[$name,
+      (.metrics.http_reqs.rate | floor),
+      (.metrics.http_req_duration["p(50)"] * 10 | floor / 10),
+      (.metrics.http_req_duration["p(99)"] * 10 | floor / 10),
+      (.metrics.http_req_failed.value * 1000 | floor / 10)] | @tsv' "$f" |
+    awk -F'\t' '{ printf "%-28s %12s %10s %10s %8s\n", $1, $2, $3, $4, $5 }'
+done
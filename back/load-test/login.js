@@ -0,0 +1,77 @@
+// Login throughput benchmark for User-Service (k6: https://k6.io).
+// Reports successful logins/sec and logins/sec per core of the server host (CORES), plus how many
+// requests were shed with 503 by the bounded BCrypt pool.
+//
+//   CORES=4 k6 run -e BASE_URL=http://localhost:8089/tests login.js
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8089/tests';
+const CORES = parseInt(__ENV.CORES || '1', 10);
+const PEAK_VUS = parseInt(__ENV.PEAK_VUS || '200', 10);
+const ACCOUNTS = parseInt(__ENV.ACCOUNTS || '50', 10);
+const PASSWORD = 'Bench-Passw0rd';
+
+const logins = new Counter('logins_ok');
+const shed = new Counter('logins_shed');
+
+export const options = {
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    scenarios: {
+        login: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '20s', target: PEAK_VUS },
+                { duration: '1m', target: PEAK_VUS },
+                { duration: '10s', target: 0 },
+            ],
+        },
+    },
+};
+
+// Comptes de test créés une fois (un email et un téléphone distincts par run)
+export function setup() {
+    const run = Date.now();
+    const emails = [];
+    for (let i = 0; i < ACCOUNTS; i++) {
+        const email = `bench-${run}-${i}@example.com`;
+        const res = http.post(`${BASE_URL}/auth/register`, JSON.stringify({
+            firstName: 'Bench', lastName: `${i}`, email, password: PASSWORD,
+            phoneNumber: `9${String(run).slice(-6)}${String(i).padStart(3, '0')}`,
+        }), { headers: { 'Content-Type': 'application/json' } });
+        if (res.status === 200) {
+            emails.push(email);
+        }
+    }
+    if (emails.length === 0) {
+        throw new Error('no benchmark account could be registered');
+    }
+    return { emails };
+}
+
+export default function (data) {
+    const email = data.emails[Math.floor(Math.random() * data.emails.length)];
+    const res = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ email, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    if (res.status === 200) {
+        logins.add(1);
+    } else if (res.status === 503) {
+        shed.add(1);
+    }
+    check(res, { 'status 200 or 503': (r) => r.status === 200 || r.status === 503 });
+}
+
+export function handleSummary(data) {
+    const ok = data.metrics.logins_ok ? data.metrics.logins_ok.values.rate : 0;
+    const rejected = data.metrics.logins_shed ? data.metrics.logins_shed.values.rate : 0;
+    const p99 = data.metrics.http_req_duration.values['p(99)'];
+    const lines = [
+        `logins/s           ${ok.toFixed(1)}`,
+        `logins/s per core  ${(ok / CORES).toFixed(1)}  (CORES=${CORES})`,
+        `shed (503)/s       ${rejected.toFixed(1)}`,
+        `p99 ms             ${p99.toFixed(1)}`,
+    ];
+    return { stdout: lines.join('\n') + '\n' };
+}